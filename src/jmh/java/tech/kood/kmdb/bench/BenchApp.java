@@ -0,0 +1,38 @@
+package tech.kood.kmdb.bench;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import tech.kood.kmdb.KmdbApplication;
+
+// Boots the application (no web server) on a SQLite file seeded with `scale` movies, `properties` ("key=value") on top.
+// The file is kept in target/bench so the next run with the same scale reuses it (delete it after generator changes).
+final class BenchApp {
+
+    private BenchApp() {}
+
+    static ConfigurableApplicationContext start(int scale, String... properties) {
+        File dir = new File("target/bench");
+        dir.mkdirs();
+        File db = new File(dir, "kmdb-" + scale + ".db");
+        List<String> args = new ArrayList<>(List.of( // Arguments, not default properties: they must win over application.properties
+                "--spring.datasource.url=jdbc:sqlite:" + db.getPath(),
+                // Schema created once, with the file: later runs reuse the seeded catalog as it is
+                "--spring.jpa.hibernate.ddl-auto=" + (db.exists() ? "none" : "create"),
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--kmdb.seed.movies=" + scale)); // CatalogGenerator, default seed: the same catalog on every machine
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(KmdbApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,110 @@
+package tech.kood.kmdb.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tech.kood.kmdb.dto.ActorDTO;
+import tech.kood.kmdb.dto.Fields;
+import tech.kood.kmdb.dto.MovieDTO;
+import tech.kood.kmdb.service.ActorService;
+import tech.kood.kmdb.service.MovieService;
+
+// Service/repository hot paths at a given catalog size.
+// Run: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="-p scale=10000,100000 -rf json -rff target/jmh-result.json"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CatalogReadBenchmark {
+
+    @Param({ "10000" })
+    public int scale;
+
+    private ConfigurableApplicationContext context;
+    private MovieService movieService;
+    private ActorService actorService;
+    private ObjectMapper objectMapper;
+    private Page<MovieDTO> loadedPage;
+
+    private final Pageable firstPage = PageRequest.of(0, 20);
+    private Pageable deepPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchApp.start(scale);
+        movieService = context.getBean(MovieService.class);
+        actorService = context.getBean(ActorService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        deepPage = PageRequest.of(scale / 20 / 2, 20); // Middle of the catalog
+
+        // DTOs are fully built by the service, serialization doesn't touch the DB
+        loadedPage = movieService.findAll(PageRequest.of(0, 100), Fields.ALL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MovieDTO> findAllFirstPage() {
+        return movieService.findAll(firstPage, Fields.ALL);
+    }
+
+    @Benchmark
+    public Page<MovieDTO> findAllDeepPage() {
+        return movieService.findAll(deepPage, Fields.ALL);
+    }
+
+    @Benchmark
+    public Page<MovieDTO> findByGenre() {
+        return movieService.findByGenre(2L, firstPage, Fields.ALL);
+    }
+
+    @Benchmark
+    public Page<MovieDTO> findByYear() {
+        return movieService.findByYear(1999, firstPage, Fields.ALL);
+    }
+
+    @Benchmark
+    public Page<MovieDTO> findByActor() {
+        return movieService.findByActor(3L, firstPage, Fields.ALL);
+    }
+
+    @Benchmark
+    public Page<MovieDTO> searchByTitle() {
+        return movieService.searchByTitle("silent river", firstPage, Fields.ALL);
+    }
+
+    @Benchmark
+    public List<ActorDTO> actorNameSearch() {
+        return actorService.findByNameContainingIgnoreCase("actor 77", Fields.ALL);
+    }
+
+    @Benchmark
+    public byte[] serializeMoviePage() throws Exception {
+        return objectMapper.writeValueAsBytes(loadedPage.getContent());
+    }
+}
@@ -0,0 +1,95 @@
+package tech.kood.kmdb.bench;
+
+import java.sql.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import tech.kood.kmdb.service.ActorService;
+import tech.kood.kmdb.service.CatalogCache;
+import tech.kood.kmdb.service.GenreService;
+
+// Force delete of a genre or an actor linked to `linked` movies, one delete per invocation.
+// Run: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ForceDeleteBenchmark -p linked=100,1000,10000"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class ForceDeleteBenchmark {
+
+    @Param({ "10000" })
+    public int scale;
+
+    @Param({ "100", "1000", "10000" })
+    public int linked;
+
+    @Param({ "genre", "actor" })
+    public String target;
+
+    private ConfigurableApplicationContext context;
+    private GenreService genreService;
+    private ActorService actorService;
+    private JdbcTemplate jdbc;
+    private CatalogCache catalogCache;
+    private long id;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (linked > scale) {
+            throw new IllegalArgumentException("linked must not exceed scale");
+        }
+        context = BenchApp.start(scale);
+        genreService = context.getBean(GenreService.class);
+        actorService = context.getBean(ActorService.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+        catalogCache = context.getBean(CatalogCache.class);
+    }
+
+    // A fresh genre or actor linked to the first `linked` movies, written with plain SQL outside the measurement
+    // (the services would need a new id block from the generator, which can't commit inside their transaction)
+    @Setup(Level.Invocation)
+    public void link() {
+        id = jdbc.queryForObject("select coalesce(max(id), 0) + 1 from " + target, Long.class);
+        if (target.equals("genre")) {
+            jdbc.update("insert into genre (id, name) values (?, ?)", id, "Bench Delete Genre " + id);
+            jdbc.update("insert into \"movie-genres\" (movie_id, genre_id) select id, ? from movie order by id limit ?",
+                    id, linked);
+        } else {
+            jdbc.update("insert into actor (id, name, birth_date) values (?, ?, ?)",
+                    id, "Bench Delete Actor " + id, Date.valueOf("1970-01-01"));
+            jdbc.update("insert into \"movie-actors\" (movie_id, actor_id) select id, ? from movie order by id limit ?",
+                    id, linked);
+        }
+        catalogCache.evictAll(); // The cached collections don't know about rows written behind Hibernate's back
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void forceDelete() {
+        if (target.equals("genre")) {
+            genreService.delete(id, true);
+        } else {
+            actorService.delete(id, true);
+        }
+    }
+}
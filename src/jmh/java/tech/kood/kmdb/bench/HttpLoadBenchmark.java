@@ -0,0 +1,85 @@
+package tech.kood.kmdb.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// HTTP round trips against the running server: 256 clients list a page of movies of a random year, caches off
+// (every request reads SQLite). `virtual` switches Tomcat between virtual threads and its platform pool (200).
+// Responses other than 200 (503 from a full bulkhead) are counted and printed, not timed apart: keep
+// maxWaitMs high enough that the run measures queuing rather than shedding.
+// Run: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="HttpLoadBenchmark -p virtual=false,true"
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(256)
+public class HttpLoadBenchmark {
+
+    @Param({ "10000" })
+    public int scale;
+
+    @Param({ "false", "true" })
+    public boolean virtual;
+
+    @Param({ "5000" })
+    public long maxWaitMs;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String base;
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchApp.start(scale,
+                "spring.main.web-application-type=servlet",
+                "server.port=0",
+                "spring.threads.virtual.enabled=" + virtual,
+                "kmdb.bulkhead.max-wait-ms=" + maxWaitMs,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/movies?size=20&year=";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println(">>> BENCH: " + rejected.get() + " responses other than 200");
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int listByYear() throws Exception {
+        int year = 1920 + ThreadLocalRandom.current().nextInt(106);
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(base + year)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            rejected.incrementAndGet();
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,468 @@
+package tech.kood.kmdb.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import tech.kood.kmdb.config.CatalogGenerator;
+
+// Open-loop load test: boots the web server on the seeded bench database (BenchApp) and sends `rate` requests per
+// second from `clients` HTTP clients, mixing browse, search, write and force-delete requests.
+// Latency runs from the moment a request was due, not from when a client got to it: when the server falls behind,
+// the queueing shows in the percentiles instead of silently lowering the rate (coordinated omission).
+// Writes a JSON report (throughput, status codes and HdrHistogram percentiles per endpoint, slowest statements) and,
+// given baseline=<previous report>, exits with 1 if an endpoint's p99 grew by more than `tolerance`.
+// Run: ./mvnw -Pbenchmark test-compile exec:exec@loadtest -Dload.args="workload=mixed rate=200 clients=64 duration=30"
+// Settings are key=value (see Settings); keys with a dot go to the application (kmdb.bulkhead.max-wait-ms=5000).
+public final class LoadTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    enum Kind { BROWSE, SEARCH, WRITE, DELETE }
+
+    private final Settings settings;
+    private final HttpClient client;
+    private final String base;
+    private final long firstMovie, lastMovie, firstActor, lastActor;
+    private final List<Long> genres;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Endpoint total = new Endpoint();
+    private final ConcurrentLinkedDeque<Long> createdMovies = new ConcurrentLinkedDeque<>(); // Force-delete targets
+    private final ConcurrentLinkedDeque<Long> createdActors = new ConcurrentLinkedDeque<>();
+    private volatile long measureFrom;
+
+    private LoadTest(Settings settings, ConfigurableApplicationContext context) {
+        this.settings = settings;
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        this.base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        this.firstMovie = jdbc.queryForObject("select min(id) from movie", Long.class);
+        this.lastMovie = jdbc.queryForObject("select max(id) from movie", Long.class);
+        this.firstActor = jdbc.queryForObject("select min(id) from actor", Long.class);
+        this.lastActor = jdbc.queryForObject("select max(id) from actor", Long.class);
+        this.genres = jdbc.queryForList("select id from genre", Long.class);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.parse(args);
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.main.web-application-type=servlet",
+                "server.port=0"));
+        settings.app.forEach((key, value) -> properties.add(key + "=" + value));
+
+        int exit;
+        try (ConfigurableApplicationContext context = BenchApp.start(settings.scale, properties.toArray(String[]::new))) {
+            LoadTest test = new LoadTest(settings, context);
+            Map<String, Object> report = test.run();
+            File out = new File(settings.out);
+            out.getParentFile().mkdirs();
+            JSON.writeValue(out, report);
+            System.out.println(">>> LOAD: report written to " + out.getPath());
+            exit = settings.baseline != null ? test.compare(report, JSON.readTree(new File(settings.baseline))) : 0;
+            test.client.close();
+        }
+        System.exit(exit);
+    }
+
+    private Map<String, Object> run() throws InterruptedException {
+        System.out.println(">>> LOAD: " + settings.workload + " " + settings.mix + " at " + settings.rate + " req/s, "
+                + settings.clients + " clients, " + settings.warmup + " s warmup + " + settings.duration + " s");
+        ExecutorService pool = Executors.newFixedThreadPool(settings.clients, Thread.ofPlatform().name("load-client-", 0).factory());
+        long interval = TimeUnit.SECONDS.toNanos(1) / settings.rate;
+        long start = System.nanoTime();
+        measureFrom = start + TimeUnit.SECONDS.toNanos(settings.warmup);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.duration);
+        long burstEvery = TimeUnit.SECONDS.toNanos(settings.burstEvery);
+        long nextBurst = burstEvery > 0 ? start + burstEvery : Long.MAX_VALUE;
+
+        // The schedule doesn't wait for responses: a late request is sent at once, its latency counted from when it was due
+        for (long due = start; due < end; due += interval) {
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            long at = due;
+            pool.execute(() -> send(pick(), at));
+            if (due >= nextBurst) {
+                long burstAt = nextBurst;
+                for (int i = 0; i < settings.burstSize; i++) {
+                    pool.execute(() -> send(Kind.WRITE, burstAt));
+                }
+                nextBurst += burstEvery;
+            }
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(60, TimeUnit.SECONDS)) {
+            System.out.println(">>> LOAD: requests still queued 60 s after the end, dropped");
+            pool.shutdownNow();
+        }
+        return report();
+    }
+
+    private Kind pick() {
+        int r = ThreadLocalRandom.current().nextInt(settings.totalWeight);
+        for (Map.Entry<Kind, Integer> weight : settings.mix.entrySet()) {
+            r -= weight.getValue();
+            if (r < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    // One request of the given kind; `due` is when the schedule wanted it sent
+    private void send(Kind kind, long due) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (kind) {
+            case BROWSE -> {
+                switch (random.nextInt(7)) {
+                    case 0 -> get("GET /api/movies?page", "/api/movies?page=" + random.nextInt(50) + "&size=20", due);
+                    case 1 -> get("GET /api/movies?genre", "/api/movies?genre=" + genre() + "&page=0&size=20", due);
+                    case 2 -> get("GET /api/movies?year", "/api/movies?year=" + (1920 + random.nextInt(106)) + "&page=0&size=20", due);
+                    case 3 -> get("GET /api/movies/{id}", "/api/movies/" + movie(), due);
+                    case 4 -> get("GET /api/movies/{id}/actors", "/api/movies/" + movie() + "/actors", due);
+                    case 5 -> get("GET /api/actors/{id}/movies", "/api/actors/" + actor() + "/movies", due);
+                    default -> get("GET /api/movies/facets", "/api/movies/facets?genre=" + genre(), due);
+                }
+            }
+            case SEARCH -> {
+                if (random.nextBoolean()) {
+                    get("GET /api/movies/search", "/api/movies/search?title=" + word(CatalogGenerator.TITLE_WORDS) + "&page=0&size=20", due);
+                } else {
+                    get("GET /api/actors?name", "/api/actors?name=" + word(CatalogGenerator.LAST_NAMES) + "&page=0&size=20", due);
+                }
+            }
+            case WRITE -> {
+                switch (random.nextInt(3)) {
+                    case 0 -> createMovie(due);
+                    case 1 -> call("PATCH /api/movies/{id}", request("/api/movies/" + movie())
+                            .method("PATCH", body("{\"duration\":" + (80 + random.nextInt(100)) + "}")), due);
+                    default -> createActor(due);
+                }
+            }
+            case DELETE -> {
+                boolean movie = random.nextBoolean();
+                Long id = movie ? createdMovies.pollFirst() : createdActors.pollFirst();
+                if (id == null) { // Nothing created yet: create instead, deleted by a later request
+                    if (movie) {
+                        createMovie(due);
+                    } else {
+                        createActor(due);
+                    }
+                } else {
+                    String type = movie ? "movies" : "actors";
+                    call("DELETE /api/" + type + "/{id}?force", request("/api/" + type + "/" + id + "?force=true").DELETE(), due);
+                }
+            }
+        }
+    }
+
+    // A movie linked to 1-3 genres, 2-4 actors and the newest load-test actor, so force-deleting that actor has links
+    private void createMovie(long due) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String genreIds = random.ints(1 + random.nextInt(3), 0, genres.size()).distinct()
+                .mapToObj(i -> "{\"id\":" + genres.get(i) + "}").collect(Collectors.joining(","));
+        List<Long> actorIds = new ArrayList<>(random.longs(2 + random.nextInt(3), firstActor, lastActor + 1).distinct().boxed().toList());
+        Long newest = createdActors.peekLast();
+        if (newest != null) {
+            actorIds.add(newest);
+        }
+        String body = "{\"title\":\"Load Movie " + random.nextInt(1_000_000) + "\",\"releaseYear\":" + (1920 + random.nextInt(106))
+                + ",\"duration\":" + (80 + random.nextInt(100)) + ",\"genres\":[" + genreIds + "],\"actors\":"
+                + actorIds.stream().map(id -> "{\"id\":" + id + "}").collect(Collectors.joining(",", "[", "]")) + "}";
+        Long id = call("POST /api/movies", request("/api/movies").POST(body(body)), due);
+        if (id != null) {
+            createdMovies.add(id);
+        }
+    }
+
+    private void createActor(long due) {
+        String body = "{\"name\":\"Load Actor " + ThreadLocalRandom.current().nextInt(1_000_000) + "\",\"birthDate\":\"1970-01-01\"}";
+        Long id = call("POST /api/actors", request("/api/actors").POST(body(body)), due);
+        if (id != null) {
+            createdActors.add(id);
+        }
+    }
+
+    private void get(String endpoint, String path, long due) {
+        call(endpoint, request(path).GET(), due);
+    }
+
+    // Sends, records the latency (if due after the warmup) and returns the id of a created entity, if any
+    private Long call(String endpoint, HttpRequest.Builder request, long due) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, e -> new Endpoint());
+        int status;
+        String body = null;
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            body = response.body();
+        } catch (IOException e) {
+            status = 0; // No response
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (due >= measureFrom) {
+            long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due));
+            stats.record(micros, status);
+            total.record(micros, status);
+        }
+        if (status == 201 && body != null) {
+            try {
+                return JSON.readTree(body).path("id").asLong();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+    }
+
+    private static HttpRequest.BodyPublisher body(String json) {
+        return HttpRequest.BodyPublishers.ofString(json);
+    }
+
+    private long movie() {
+        return ThreadLocalRandom.current().nextLong(firstMovie, lastMovie + 1);
+    }
+
+    private long actor() {
+        return ThreadLocalRandom.current().nextLong(firstActor, lastActor + 1);
+    }
+
+    private static String word(List<String> words) {
+        return words.get(ThreadLocalRandom.current().nextInt(words.size()));
+    }
+
+    private long genre() {
+        return genres.get(ThreadLocalRandom.current().nextInt(genres.size()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("workload", settings.workload);
+        report.put("mix", settings.mix.entrySet().stream()
+                .collect(Collectors.toMap(e -> e.getKey().name().toLowerCase(Locale.ROOT), Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new)));
+        report.put("scale", settings.scale);
+        report.put("targetRate", settings.rate);
+        report.put("clients", settings.clients);
+        report.put("warmupSeconds", settings.warmup);
+        report.put("durationSeconds", settings.duration);
+        report.put("burstEverySeconds", settings.burstEvery);
+        report.put("burstSize", settings.burstSize);
+        report.put("properties", settings.app);
+        report.put("total", summary(total));
+
+        Map<String, Object> byEndpoint = new TreeMap<>();
+        System.out.printf(">>> LOAD: %-34s %8s %8s %8s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        new TreeMap<>(endpoints).forEach((name, endpoint) -> {
+            Map<String, Object> summary = summary(endpoint);
+            byEndpoint.put(name, summary);
+            print(name, summary);
+        });
+        print("total", (Map<String, Object>) report.get("total"));
+        report.put("endpoints", byEndpoint);
+        report.put("slowQueries", slowQueries());
+        return report;
+    }
+
+    private Map<String, Object> summary(Endpoint endpoint) {
+        Histogram latency = endpoint.latency;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", latency.getTotalCount());
+        summary.put("throughput", round(latency.getTotalCount() / (double) settings.duration));
+        Map<String, Long> codes = new TreeMap<>();
+        endpoint.statuses.forEach((status, count) -> codes.put(String.valueOf(status), count.sum()));
+        summary.put("errors", codes.entrySet().stream()
+                .filter(e -> !e.getKey().startsWith("2")).mapToLong(Map.Entry::getValue).sum());
+        summary.put("statuses", codes);
+        Map<String, Object> ms = new LinkedHashMap<>();
+        ms.put("mean", round(latency.getMean() / 1000));
+        for (double percentile : PERCENTILES) {
+            ms.put("p" + (percentile == (int) percentile ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    round(latency.getValueAtPercentile(percentile) / 1000.0));
+        }
+        ms.put("max", round(latency.getMaxValue() / 1000.0));
+        summary.put("latencyMs", ms);
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(String name, Map<String, Object> summary) {
+        Map<String, Object> ms = (Map<String, Object>) summary.get("latencyMs");
+        System.out.printf(">>> LOAD: %-34s %8d %8.1f %8d %9.2f %9.2f %9.2f %9.2f%n", name, summary.get("requests"),
+                summary.get("throughput"), summary.get("errors"), ms.get("p50"), ms.get("p99"),
+                ms.get("p99.9"), ms.get("max"));
+    }
+
+    // The server's slowest statements during the run (GET /api/admin/slow-queries)
+    private JsonNode slowQueries() {
+        try {
+            return JSON.readTree(client.send(request("/api/admin/slow-queries").GET().build(),
+                    HttpResponse.BodyHandlers.ofString()).body());
+        } catch (IOException | InterruptedException e) {
+            return null;
+        }
+    }
+
+    // 1 if an endpoint's p99 grew by more than the tolerance (and by more than 1 ms: sub-millisecond noise isn't a regression)
+    private int compare(Map<String, Object> report, JsonNode baseline) {
+        int regressions = 0;
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> current = (Map<String, Map<String, Object>>) report.get("endpoints");
+        for (Map.Entry<String, Map<String, Object>> endpoint : current.entrySet()) {
+            JsonNode before = baseline.path("endpoints").path(endpoint.getKey()).path("latencyMs").path("p99");
+            if (before.isMissingNode()) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            double now = (Double) ((Map<String, Object>) endpoint.getValue().get("latencyMs")).get("p99");
+            if (now > before.asDouble() * (1 + settings.tolerance) && now - before.asDouble() > 1) {
+                System.out.printf(">>> LOAD: p99 regression %s: %.2f ms -> %.2f ms%n", endpoint.getKey(), before.asDouble(), now);
+                regressions++;
+            }
+        }
+        System.out.println(">>> LOAD: " + regressions + " p99 regressions against " + settings.baseline
+                + " (tolerance " + Math.round(settings.tolerance * 100) + "%)");
+        return regressions > 0 ? 1 : 0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static final class Endpoint {
+        final Histogram latency = new ConcurrentHistogram(3); // Microseconds, auto-resizing
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>(); // 0: no response (I/O error, timeout)
+
+        void record(long micros, int status) {
+            latency.recordValue(micros);
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+    }
+
+    // key=value arguments. workload picks a mix (browse, search, write-burst, delete, mixed), mix= overrides it
+    // (browse:70,search:15,write:10,delete:5); burstEvery/burstSize add that many writes at once every N seconds.
+    static final class Settings {
+        private static final Map<String, String> WORKLOADS = Map.of(
+                "browse", "browse:100",
+                "search", "search:100",
+                "write-burst", "browse:90,write:10",
+                "delete", "browse:60,write:20,delete:20",
+                "mixed", "browse:70,search:15,write:10,delete:5");
+
+        String workload = "mixed";
+        final Map<Kind, Integer> mix = new EnumMap<>(Kind.class);
+        int totalWeight;
+        int scale = 10_000;
+        int rate = 200;
+        int clients = 64;
+        int warmup = 5;
+        int duration = 30;
+        int burstEvery;
+        int burstSize = 100;
+        String out;
+        String baseline;
+        double tolerance = 0.25;
+        final Map<String, String> app = new TreeMap<>();
+
+        static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            Map<String, String> values = new LinkedHashMap<>();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq <= 0) {
+                    throw new IllegalArgumentException("Expected key=value, got " + arg);
+                }
+                values.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+            settings.workload = values.getOrDefault("workload", settings.workload);
+            String mix = values.containsKey("mix") ? values.get("mix") : WORKLOADS.get(settings.workload);
+            if (mix == null) {
+                throw new IllegalArgumentException("Unknown workload " + settings.workload + ", expected one of " + WORKLOADS.keySet());
+            }
+            if (settings.workload.equals("write-burst")) {
+                settings.burstEvery = 10;
+                settings.burstSize = 200;
+            }
+            values.remove("workload");
+            values.remove("mix");
+            values.forEach((key, value) -> {
+                switch (key) {
+                    case "scale" -> settings.scale = positive(key, value);
+                    case "rate" -> settings.rate = positive(key, value);
+                    case "clients" -> settings.clients = positive(key, value);
+                    case "warmup" -> settings.warmup = Integer.parseInt(value);
+                    case "duration" -> settings.duration = positive(key, value);
+                    case "burstEvery" -> settings.burstEvery = Integer.parseInt(value);
+                    case "burstSize" -> settings.burstSize = Integer.parseInt(value);
+                    case "out" -> settings.out = value;
+                    case "baseline" -> settings.baseline = value;
+                    case "tolerance" -> settings.tolerance = Double.parseDouble(value);
+                    default -> {
+                        if (!key.contains(".")) {
+                            throw new IllegalArgumentException("Unknown setting " + key);
+                        }
+                        settings.app.put(key, value);
+                    }
+                }
+            });
+            for (String part : mix.split(",")) {
+                String[] weight = part.split(":");
+                settings.mix.merge(Kind.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)),
+                        positive("mix", weight[1].trim()), Integer::sum);
+            }
+            settings.totalWeight = settings.mix.values().stream().mapToInt(Integer::intValue).sum();
+            if (settings.out == null) {
+                settings.out = "target/loadtest/" + settings.workload + ".json";
+            }
+            // Slow statements are collected for the report, not logged while the load runs
+            settings.app.putIfAbsent("logging.level.kmdb.sql", "ERROR");
+            return settings;
+        }
+
+        private static int positive(String key, String value) {
+            int number = Integer.parseInt(value);
+            if (number <= 0) {
+                throw new IllegalArgumentException(key + " must be > 0, got " + value);
+            }
+            return number;
+        }
+    }
+}
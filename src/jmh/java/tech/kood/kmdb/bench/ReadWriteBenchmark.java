@@ -0,0 +1,116 @@
+package tech.kood.kmdb.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import tech.kood.kmdb.dto.Fields;
+import tech.kood.kmdb.dto.MovieDTO;
+import tech.kood.kmdb.dto.MoviePatchDTO;
+import tech.kood.kmdb.service.MovieService;
+import tech.kood.kmdb.service.WriteQueue;
+
+// Read throughput with 1 and 4 reader threads while `writers` threads patch random movies through the write queue.
+// Caches are off, every read is a readOnly transaction on SQLite (a page of movies of a random year).
+// Run: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ReadWriteBenchmark -p writers=0,1"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+public class ReadWriteBenchmark {
+
+    @Param({ "10000" })
+    public int scale;
+
+    @Param({ "0", "1" })
+    public int writers;
+
+    // Pause between two writes of a writer thread
+    @Param({ "1" })
+    public int writePauseMs;
+
+    private ConfigurableApplicationContext context;
+    private MovieService movieService;
+    private final List<Thread> writerThreads = new ArrayList<>();
+    private final AtomicLong writes = new AtomicLong();
+    private volatile boolean running;
+    private long startNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchApp.start(scale,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        movieService = context.getBean(MovieService.class);
+        WriteQueue writeQueue = context.getBean(WriteQueue.class);
+        running = true;
+        for (int i = 0; i < writers; i++) {
+            Thread writer = new Thread(() -> {
+                while (running) {
+                    long id = 1 + ThreadLocalRandom.current().nextLong(scale);
+                    MoviePatchDTO patch = new MoviePatchDTO();
+                    patch.setDuration(80 + ThreadLocalRandom.current().nextInt(100));
+                    writeQueue.execute(() -> movieService.update(id, patch).map(MovieDTO::of));
+                    writes.incrementAndGet();
+                    try {
+                        Thread.sleep(writePauseMs);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "bench-writer-" + i);
+            writer.start();
+            writerThreads.add(writer);
+        }
+        startNanos = System.nanoTime();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        for (Thread writer : writerThreads) {
+            writer.join();
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf(">>> BENCH: %d writes in %.1f s (%.0f/s)%n", writes.get(), seconds, writes.get() / seconds);
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Page<MovieDTO> read1Thread() {
+        return read();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Page<MovieDTO> read4Threads() {
+        return read();
+    }
+
+    private Page<MovieDTO> read() {
+        return movieService.findByYear(1920 + ThreadLocalRandom.current().nextInt(106), PageRequest.of(0, 20), Fields.ALL);
+    }
+}
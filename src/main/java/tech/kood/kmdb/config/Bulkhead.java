@@ -0,0 +1,67 @@
+package tech.kood.kmdb.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Caps how many threads work on the database at once. A thread that finds every permit taken waits (parked, FIFO)
+// up to maxWaitMs, then gives up: the caller answers 503 instead of queuing in the connection pool.
+public class Bulkhead {
+
+    private final String name;
+    private final int size;
+    private final long maxWaitMs;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public Bulkhead(String name, int size, long maxWaitMs) {
+        if (size < 1 || maxWaitMs < 0) {
+            throw new IllegalArgumentException("Bulkhead " + name + ": size must be >= 1 and max wait >= 0");
+        }
+        this.name = name;
+        this.size = size;
+        this.maxWaitMs = maxWaitMs;
+        this.permits = new Semaphore(size, true);
+    }
+
+    // False if no permit freed up within maxWaitMs (or the thread was interrupted)
+    public boolean tryAcquire() {
+        waiting.incrementAndGet();
+        try {
+            if (permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                acquired.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiting.decrementAndGet();
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String rejectionMessage() {
+        return "Database busy: all " + size + " " + name + " permits taken for " + maxWaitMs + " ms, retry later";
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("permits", size);
+        stats.put("inUse", size - permits.availablePermits());
+        stats.put("waiting", waiting.get());
+        stats.put("acquired", acquired.get());
+        stats.put("rejected", rejected.get());
+        stats.put("maxWaitMs", maxWaitMs);
+        return stats;
+    }
+}
@@ -0,0 +1,75 @@
+package tech.kood.kmdb.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+// JPA transactions behind the read and write bulkheads: a new transaction takes a permit before it begins
+// (readOnly: reads, else writes) and gives it back once it completed. Joined transactions take none.
+// Rejected before any JDBC work, the caller gets a CannotCreateTransactionException (503).
+// Hibernate's id block updates run on their own connection outside of any transaction, so a writing
+// transaction never waits for a second write permit.
+// Write commits are counted (+1 before, +1 after): a value read twice unchanged means no write committed in between.
+public class BulkheadTransactionManager extends JpaTransactionManager {
+
+    private final Bulkhead reads;
+    private final Bulkhead writes;
+    private final Map<Object, Bulkhead> held = new ConcurrentHashMap<>(); // Transaction object -> its permit
+    private final AtomicLong commits = new AtomicLong();
+
+    public BulkheadTransactionManager(Bulkhead reads, Bulkhead writes) {
+        this.reads = reads;
+        this.writes = writes;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        Bulkhead bulkhead = definition.isReadOnly() ? reads : writes;
+        if (!bulkhead.tryAcquire()) {
+            throw new CannotCreateTransactionException(bulkhead.rejectionMessage());
+        }
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            bulkhead.release();
+            throw e;
+        }
+        held.put(transaction, bulkhead);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        if (status.isReadOnly()) {
+            super.doCommit(status);
+            return;
+        }
+        commits.incrementAndGet();
+        try {
+            super.doCommit(status);
+        } finally {
+            commits.incrementAndGet(); // Before the after-commit callbacks and before the writer gets its answer
+        }
+    }
+
+    // Changes whenever a write transaction commits (ReadCoalescing: a load can't be shared past a write)
+    public long commits() {
+        return commits.get();
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            Bulkhead bulkhead = held.remove(transaction);
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package tech.kood.kmdb.config;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Synthetic catalog for local runs at production scale: --kmdb.seed.movies=1000000 --kmdb.seed.actors=200000.
+// - actors per movie: 1 + exponential (mean 3), each drawn from a Zipf distribution over the actors
+//   (kmdb.seed.actor-skew): a few actors are in thousands of movies, most in a handful or none,
+// - 1-4 genres per movie, popular genres (Drama, Comedy...) more often,
+// - release years 1920-2025, recent years more common, durations around 105 minutes.
+// The same kmdb.seed.random-seed gives the same catalog: every block of rows has its own random generator, so the
+// result doesn't depend on kmdb.seed.threads. Threads build the rows, one connection inserts them as JDBC batches
+// (SQLite has a single writer, parallel inserts would only wait on each other). Only runs on an empty catalog.
+@Component
+public class CatalogGenerator {
+
+    public static final List<String> TITLE_WORDS = List.of(
+            "Night", "River", "Empire", "Shadow", "Garden", "Storm", "City", "Heart", "Winter", "Dream",
+            "Road", "Fire", "Island", "Secret", "Kingdom", "Mirror", "Ghost", "Summer", "Machine", "Ocean",
+            "Star", "Wolf", "Crown", "Train", "Silence", "Letter", "Hunter", "Stranger", "Sky", "Promise");
+    private static final List<String> ADJECTIVES = List.of(
+            "Silent", "Last", "Broken", "Golden", "Hidden", "Lost", "Dark", "Wild", "Endless", "Burning",
+            "Frozen", "Little", "Final", "Distant", "Red", "Quiet", "Lonely", "Midnight", "Electric", "Forgotten");
+    private static final List<String> FIRST_NAMES = List.of(
+            "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+            "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+            "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Emma", "Mark", "Olivia", "Paul", "Sophia");
+    public static final List<String> LAST_NAMES = List.of(
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Wilson", "Anderson", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Thompson",
+            "White", "Harris", "Clark", "Lewis", "Walker", "Young", "Allen", "King", "Wright", "Scott");
+    // Most common first
+    private static final List<String> GENRES = List.of(
+            "Drama", "Comedy", "Action", "Thriller", "Romance", "Crime", "Sci-Fi", "Horror", "Adventure", "Documentary",
+            "Animation", "Fantasy", "Mystery", "Family", "History", "War", "Biography", "Music", "Western", "Sport");
+    private static final int FIRST_YEAR = 1920;
+    private static final int LAST_YEAR = 2025; // Fixed, not today: the catalog must not change with the date
+    private static final LocalDate OLDEST_BIRTH = LocalDate.of(1930, 1, 1);
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final int movies;
+    private final int actors;
+    private final int genres;
+    private final long randomSeed;
+    private final int threads;
+    private final int batchSize;
+    private final double actorSkew;
+
+    public CatalogGenerator(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+            @Value("${kmdb.seed.movies:0}") int movies,
+            @Value("${kmdb.seed.actors:0}") int actors,
+            @Value("${kmdb.seed.genres:20}") int genres,
+            @Value("${kmdb.seed.random-seed:42}") long randomSeed,
+            @Value("${kmdb.seed.threads:0}") int threads,
+            @Value("${kmdb.seed.batch-size:1000}") int batchSize,
+            @Value("${kmdb.seed.actor-skew:0.7}") double actorSkew) {
+        if (movies < 0 || actors < 0 || genres < 1 || genres > GENRES.size() || batchSize < 1 || actorSkew < 0) {
+            throw new IllegalArgumentException("kmdb.seed.movies/actors must be >= 0, kmdb.seed.genres between 1 and "
+                    + GENRES.size() + ", kmdb.seed.batch-size > 0, kmdb.seed.actor-skew >= 0");
+        }
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.movies = movies;
+        this.actors = actors > 0 ? actors : Math.max(1, movies / 5);
+        this.genres = genres;
+        this.randomSeed = randomSeed;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize;
+        this.actorSkew = actorSkew;
+    }
+
+    // kmdb.seed.movies > 0: the Seeder generates instead of inserting the sample data
+    public boolean enabled() {
+        return movies > 0;
+    }
+
+    public void generate() {
+        long start = System.nanoTime();
+        System.out.println(">>> SEEDER: generating " + movies + " movies, " + actors + " actors, " + genres
+                + " genres (seed " + randomSeed + ", " + threads + " threads)");
+        List<Long> genreIds = genres();
+        long firstActor = firstFreeId("actor");
+        long firstMovie = firstFreeId("movie");
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("seed-", 0).factory());
+        try {
+            insert(workers, blocks(actors), block -> actorBlock(block, firstActor),
+                    "insert into actor (id, name, birth_date, version) values (?, ?, ?, 0)");
+            reserve("actor", firstActor + actors);
+
+            Zipf cast = new Zipf(actors, actorSkew);
+            long[] byPopularity = shuffledIds(firstActor, actors, new SplittableRandom(randomSeed));
+            Zipf genrePopularity = new Zipf(genreIds.size(), 1.0);
+            insert(workers, blocks(movies), block -> movieBlock(block, firstMovie, genreIds, genrePopularity, cast, byPopularity),
+                    "insert into movie (id, title, release_year, duration, version) values (?, ?, ?, ?, 0)",
+                    "insert into \"movie-genres\" (movie_id, genre_id) values (?, ?)",
+                    "insert into \"movie-actors\" (movie_id, actor_id) values (?, ?)");
+            reserve("movie", firstMovie + movies);
+        } finally {
+            workers.shutdownNow();
+        }
+        long links = jdbc.queryForObject("select count(*) from \"movie-actors\"", Long.class);
+        System.out.println(">>> SEEDER: generated in " + (System.nanoTime() - start) / 1_000_000 + " ms, " + links
+                + " actor links, most linked actor in "
+                + jdbc.queryForObject("select coalesce(max(n), 0) from (select count(*) n from \"movie-actors\" group by actor_id)", Long.class)
+                + " movies");
+    }
+
+    // Rows for one block, one list per statement
+    private interface BlockBuilder {
+        List<List<Object[]>> build(int block);
+    }
+
+    // Workers build blocks ahead (at most 2 per thread in memory), this thread inserts them in order
+    private void insert(ExecutorService workers, int blocks, BlockBuilder builder, String... statements) {
+        Deque<Future<List<List<Object[]>>>> ahead = new ArrayDeque<>();
+        int next = 0;
+        for (int done = 0; done < blocks; done++) {
+            while (next < blocks && ahead.size() < threads * 2) {
+                int block = next++;
+                ahead.add(workers.submit(() -> builder.build(block)));
+            }
+            List<List<Object[]>> rows;
+            try {
+                rows = ahead.poll().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Seeding interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Seeding failed", e.getCause());
+            }
+            tx.executeWithoutResult(status -> {
+                for (int i = 0; i < statements.length; i++) {
+                    jdbc.batchUpdate(statements[i], rows.get(i));
+                }
+            });
+            if ((done + 1) % 100 == 0) {
+                System.out.println(">>> SEEDER: " + (done + 1) + "/" + blocks + " blocks");
+            }
+        }
+    }
+
+    private List<List<Object[]>> actorBlock(int block, long firstActor) {
+        SplittableRandom random = random(1, block);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = block * batchSize; i < Math.min(actors, (block + 1) * batchSize); i++) {
+            String name = FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size())) + " " + (char) ('A' + random.nextInt(26))
+                    + ". " + LAST_NAMES.get(random.nextInt(LAST_NAMES.size()));
+            rows.add(new Object[] { firstActor + i, name, Date.valueOf(OLDEST_BIRTH.plusDays(random.nextInt(75 * 365))) });
+        }
+        return List.of(rows);
+    }
+
+    private List<List<Object[]>> movieBlock(int block, long firstMovie, List<Long> genreIds, Zipf genrePopularity,
+            Zipf cast, long[] actorsByPopularity) {
+        SplittableRandom random = random(2, block);
+        List<Object[]> movieRows = new ArrayList<>();
+        List<Object[]> genreRows = new ArrayList<>();
+        List<Object[]> actorRows = new ArrayList<>();
+        for (int i = block * batchSize; i < Math.min(movies, (block + 1) * batchSize); i++) {
+            long id = firstMovie + i;
+            double recent = random.nextDouble();
+            int year = LAST_YEAR - (int) ((LAST_YEAR - FIRST_YEAR + 1) * recent * recent);
+            int duration = (int) Math.max(60, Math.min(240, Math.round(105 + random.nextGaussian() * 20)));
+            movieRows.add(new Object[] { id, title(random), year, duration });
+
+            int genreCount = pick(random, 45, 35, 15, 5) + 1;
+            for (int genre : distinct(random, Math.min(genreCount, genreIds.size()), genrePopularity)) {
+                genreRows.add(new Object[] { id, genreIds.get(genre) });
+            }
+            int castSize = (int) Math.min(Math.min(20, actors), 1 + Math.floor(-Math.log(1 - random.nextDouble()) * 3));
+            for (int rank : distinct(random, castSize, cast)) {
+                actorRows.add(new Object[] { id, actorsByPopularity[rank] });
+            }
+        }
+        return List.of(movieRows, genreRows, actorRows);
+    }
+
+    private static String title(SplittableRandom random) {
+        String title = (random.nextInt(3) == 0 ? "The " : "") + ADJECTIVES.get(random.nextInt(ADJECTIVES.size()))
+                + " " + TITLE_WORDS.get(random.nextInt(TITLE_WORDS.size()));
+        return random.nextInt(20) == 0 ? title + " " + (2 + random.nextInt(3)) : title; // Some sequels
+    }
+
+    // `count` different indexes from the distribution
+    private static int[] distinct(SplittableRandom random, int count, Zipf distribution) {
+        int[] picked = new int[count];
+        int found = 0;
+        for (int attempt = 0; found < count && attempt < count * 20; attempt++) {
+            int candidate = distribution.sample(random);
+            boolean seen = false;
+            for (int j = 0; j < found && !seen; j++) {
+                seen = picked[j] == candidate;
+            }
+            if (!seen) {
+                picked[found++] = candidate;
+            }
+        }
+        return Arrays.copyOf(picked, found);
+    }
+
+    // Index of the weight that a random draw falls into
+    private static int pick(SplittableRandom random, int... weights) {
+        int r = random.nextInt(Arrays.stream(weights).sum());
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    // The first `genres` names, reusing genres that already exist under that name
+    private List<Long> genres() {
+        Map<String, Long> existing = new HashMap<>();
+        jdbc.query("select id, name from genre", rs -> {
+            existing.put(rs.getString("name"), rs.getLong("id"));
+        });
+        long next = firstFreeId("genre");
+        List<Long> ids = new ArrayList<>();
+        for (String name : GENRES.subList(0, genres)) {
+            Long id = existing.get(name);
+            if (id == null) {
+                id = next++;
+                jdbc.update("insert into genre (id, name, version) values (?, ?, 0)", id, name);
+            }
+            ids.add(id);
+        }
+        reserve("genre", next);
+        return ids;
+    }
+
+    private int blocks(int rows) {
+        return (rows + batchSize - 1) / batchSize;
+    }
+
+    // One generator per block and kind of row (1 actors, 2 movies), whatever thread builds it.
+    // split() mixes the seed: seeds a multiple of the golden gamma apart would give the same, shifted sequence.
+    private SplittableRandom random(int kind, int block) {
+        return new SplittableRandom(randomSeed * 1_000_003L + kind * 1_000_000_007L + block).split();
+    }
+
+    private static long[] shuffledIds(long first, int count, SplittableRandom random) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = first + i;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return ids;
+    }
+
+    // Generated ids start above the block Hibernate's pooled generator (<table>_seq) may already have handed out
+    private long firstFreeId(String table) {
+        long maxId = jdbc.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        Long nextVal = jdbc.query("select next_val from " + table + "_seq", rs -> rs.next() ? rs.getLong(1) : 0L);
+        return Math.max(maxId, nextVal) + 1;
+    }
+
+    // Moves the generator past the generated ids, so entities created through the services don't collide
+    private void reserve(String table, long nextId) {
+        jdbc.update("update " + table + "_seq set next_val = ?", nextId + 50);
+    }
+
+    // Zipf(n, s) over 0..n-1 (0 most likely) by binary search in the cumulative weights 1/k^s
+    private static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, target);
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
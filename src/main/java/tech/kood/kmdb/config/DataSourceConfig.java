@@ -0,0 +1,89 @@
+package tech.kood.kmdb.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Two SQLite pools on the same file, behind the one DataSource JPA and JdbcTemplate use:
+// - writer: a couple of read-write connections that switch the file to WAL (write-ahead log) mode,
+// - readers: read-only connections. In WAL mode a reader works on the last committed snapshot,
+//   it neither waits for the writer nor makes it wait, so reads run in parallel with a write.
+// The proxy hands out a connection handle and only picks the pool at the first statement, once the transaction
+// is set up: @Transactional(readOnly = true) reads go to the readers, everything else to the writer.
+// Transactions pass a Bulkhead first (separate read and write limits, see BulkheadTransactionManager): with
+// virtual threads thousands of requests may want the database at once, the extra ones wait in the bulkhead
+// for at most kmdb.bulkhead.max-wait-ms and get a 503 instead of piling up in the pools.
+// Statements are timed on the way out (StatementTimingDataSource -> SlowQueryLog).
+@Configuration
+public class DataSourceConfig {
+
+    // Writes are serialized by SQLite (and WriteQueue) anyway. The pool still needs more than one connection:
+    // Hibernate takes id blocks (<table>_seq) on a second connection while the writing transaction holds its own.
+    @Bean(destroyMethod = "close")
+    HikariDataSource writeDataSource(DataSourceProperties properties,
+            @Value("${kmdb.datasource.write-pool-size:4}") int poolSize) {
+        HikariDataSource pool = pool(properties, "kmdb-writer", poolSize);
+        pool.addDataSourceProperty("journal_mode", "WAL"); // Persistent: stored in the database file
+        return pool;
+    }
+
+    @Bean(destroyMethod = "close")
+    HikariDataSource readDataSource(DataSourceProperties properties,
+            @Value("${kmdb.datasource.read-pool-size:0}") int poolSize) {
+        HikariDataSource pool = pool(properties, "kmdb-reader",
+                poolSize > 0 ? poolSize : Math.max(4, Runtime.getRuntime().availableProcessors()));
+        pool.addDataSourceProperty("open_mode", "1"); // SQLITE_OPEN_READONLY
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    // Permits default to the pool sizes, minus the writer connection kept for Hibernate's id blocks
+    @Bean
+    Bulkhead writeBulkhead(HikariDataSource writeDataSource,
+            @Value("${kmdb.bulkhead.write-permits:0}") int permits,
+            @Value("${kmdb.bulkhead.max-wait-ms:1000}") long maxWaitMs) {
+        return new Bulkhead("writer", permits > 0 ? permits : Math.max(1, writeDataSource.getMaximumPoolSize() - 1),
+                maxWaitMs);
+    }
+
+    @Bean
+    Bulkhead readBulkhead(HikariDataSource readDataSource,
+            @Value("${kmdb.bulkhead.read-permits:0}") int permits,
+            @Value("${kmdb.bulkhead.max-wait-ms:1000}") long maxWaitMs) {
+        return new Bulkhead("reader", permits > 0 ? permits : readDataSource.getMaximumPoolSize(), maxWaitMs);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource writeDataSource, HikariDataSource readDataSource, SlowQueryLog slowQueryLog,
+            @Value("${kmdb.sql.timing.enabled:true}") boolean timing) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(writeDataSource);
+        routing.setReadOnlyDataSource(readDataSource);
+        return timing ? new StatementTimingDataSource(routing, slowQueryLog) : routing;
+    }
+
+    // Replaces Boot's JpaTransactionManager (same customizers, e.g. spring.transaction.default-timeout)
+    @Bean
+    BulkheadTransactionManager transactionManager(Bulkhead readBulkhead, Bulkhead writeBulkhead,
+            ObjectProvider<TransactionManagerCustomizers> customizers) {
+        BulkheadTransactionManager transactionManager = new BulkheadTransactionManager(readBulkhead, writeBulkhead);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String name, int size) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(size);
+        return pool;
+    }
+}
@@ -0,0 +1,22 @@
+package tech.kood.kmdb.config;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import tech.kood.kmdb.dto.Fields;
+
+// The read models carry @JsonFilter(Fields.FILTER): by default it writes every property (response cache, full
+// reads), a sparse read replaces it for its own response only (MappingJacksonValue).
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    Jackson2ObjectMapperBuilderCustomizer allFieldsByDefault() {
+        return builder -> builder.filters(
+                new SimpleFilterProvider().addFilter(Fields.FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
@@ -0,0 +1,114 @@
+package tech.kood.kmdb.config;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import tech.kood.kmdb.service.CatalogCache;
+import tech.kood.kmdb.service.DeleteJobService;
+import tech.kood.kmdb.service.ResponseCache;
+import tech.kood.kmdb.service.WriteQueue;
+
+// Application meters next to what actuator binds by itself (GET /actuator/prometheus):
+// - http.server.requests per endpoint (uri + method + status), kmdb.service per @Timed service method,
+// - hibernate.* from Hibernate statistics (queries, entity loads, collection fetches, cache hits/misses),
+// - hikaricp.connections.* per pool (kmdb-reader, kmdb-writer),
+// - and below: write queue, bulkheads, SQLite busy retries, read coalescing, the second-level cache hit ratio and
+//   the response cache.
+// The gauges read the same stats() maps as the /api/admin endpoints at scrape time.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    MeterRegistryCustomizer<MeterRegistry> commonTags() {
+        return registry -> registry.config().commonTags("application", "kmdb");
+    }
+
+    @Bean
+    MeterBinder writeQueueMetrics(WriteQueue writeQueue) {
+        return registry -> {
+            Gauge.builder("kmdb.writes.queue.depth", writeQueue, q -> number(q.stats(), "queueDepth"))
+                    .register(registry);
+            counter(registry, "kmdb.writes.commits", writeQueue, "commits");
+            counter(registry, "kmdb.writes.committed", writeQueue, "committedWrites");
+            counter(registry, "kmdb.writes.failed", writeQueue, "failedWrites");
+            counter(registry, "kmdb.writes.split.groups", writeQueue, "splitGroups");
+            FunctionCounter.builder("kmdb.sqlite.busy.retries", writeQueue, q -> number(q.stats(), "busyRetries"))
+                    .description("Transactions run again after SQLITE_BUSY").tag("source", "write-queue")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder deleteJobMetrics(DeleteJobService deleteJobService) {
+        return registry -> FunctionCounter.builder("kmdb.sqlite.busy.retries", deleteJobService,
+                        DeleteJobService::busyRetries)
+                .description("Transactions run again after SQLITE_BUSY").tag("source", "delete-jobs")
+                .register(registry);
+    }
+
+    @Bean
+    MeterBinder readCoalescingMetrics(ReadCoalescing readCoalescing) {
+        return registry -> {
+            for (String outcome : new String[] { "loads", "collapsed", "timeouts", "stale" }) {
+                FunctionCounter.builder("kmdb.coalesce.calls", readCoalescing, c -> c.total(outcome))
+                        .description("@Coalesced reads: run, served by a concurrent load, wait timed out, not joined after a write")
+                        .tag("outcome", outcome)
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder bulkheadMetrics(Bulkhead readBulkhead, Bulkhead writeBulkhead) {
+        return registry -> {
+            for (Map.Entry<String, Bulkhead> pool : Map.of("read", readBulkhead, "write", writeBulkhead).entrySet()) {
+                Bulkhead bulkhead = pool.getValue();
+                Gauge.builder("kmdb.bulkhead.permits", bulkhead, b -> number(b.stats(), "permits"))
+                        .tag("pool", pool.getKey()).register(registry);
+                Gauge.builder("kmdb.bulkhead.in.use", bulkhead, b -> number(b.stats(), "inUse"))
+                        .tag("pool", pool.getKey()).register(registry);
+                Gauge.builder("kmdb.bulkhead.waiting", bulkhead, b -> number(b.stats(), "waiting"))
+                        .tag("pool", pool.getKey()).register(registry);
+                FunctionCounter.builder("kmdb.bulkhead.rejected", bulkhead, b -> number(b.stats(), "rejected"))
+                        .tag("pool", pool.getKey()).register(registry);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder secondLevelCacheMetrics(CatalogCache catalogCache) {
+        return registry -> Gauge.builder("kmdb.cache.l2.hit.ratio", catalogCache, CatalogCache::secondLevelHitRatio)
+                .description("Second-level cache hits / lookups since startup").register(registry);
+    }
+
+    @Bean
+    MeterBinder responseCacheMetrics(ResponseCache responseCache) {
+        return registry -> {
+            Gauge.builder("kmdb.cache.responses.bytes", responseCache, c -> number(c.stats(), "bytes"))
+                    .description("Weight of the serialized response cache").baseUnit("bytes").register(registry);
+            FunctionCounter.builder("kmdb.cache.responses.hits", responseCache, c -> number(c.stats(), "hits"))
+                    .register(registry);
+            FunctionCounter.builder("kmdb.cache.responses.misses", responseCache, c -> number(c.stats(), "misses"))
+                    .register(registry);
+            FunctionCounter.builder("kmdb.cache.responses.evictions", responseCache, c -> number(c.stats(), "evictions"))
+                    .register(registry);
+        };
+    }
+
+    // Meters only keep a weak reference to their object: it has to be the (singleton) bean, not a lambda
+    private static void counter(MeterRegistry registry, String name, WriteQueue writeQueue, String key) {
+        FunctionCounter.builder(name, writeQueue, q -> number(q.stats(), key)).register(registry);
+    }
+
+    private static double number(Map<String, Object> stats, String key) {
+        return stats.get(key) instanceof Number n ? n.doubleValue() : Double.NaN;
+    }
+}
@@ -0,0 +1,173 @@
+package tech.kood.kmdb.config;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import tech.kood.kmdb.service.Coalesced;
+
+// Single flight for @Coalesced service reads: concurrent calls with the same method and arguments share one load.
+// The first caller runs the method, the others wait for its result (or exception): no query, no transaction and
+// no bulkhead permit of their own.
+// A call only joins a load that started after the last write commit (BulkheadTransactionManager.commits()
+// unchanged), so what it gets is never older than what it would have read itself. Otherwise it starts a new load,
+// the following calls join that one.
+// Per key deadline (kmdb.coalesce.timeout-ms or @Coalesced(timeoutMs)): a load running longer isn't joined any
+// more, and a waiting call runs the method itself once the deadline has passed.
+// Calls inside a transaction (the writer reading its own changes) always run as is.
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1) // Outside @Transactional and @Timed: only real loads open a transaction and are timed
+public class ReadCoalescing {
+
+    private record Key(Method method, List<Object> args) {}
+
+    private static final class Flight {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final long commits;
+        final long deadline; // System.nanoTime()
+
+        Flight(long commits, long deadline) {
+            this.commits = commits;
+            this.deadline = deadline;
+        }
+
+        boolean joinable(long commits, long now) {
+            return this.commits == commits && deadline - now > 0;
+        }
+    }
+
+    // Per method: loads run, calls served by another call's load, waits that timed out, loads not joined after a write
+    private static final class Outcomes {
+        final LongAdder loads = new LongAdder();
+        final LongAdder collapsed = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder stale = new LongAdder();
+    }
+
+    private final BulkheadTransactionManager transactionManager;
+    private final boolean enabled;
+    private final long timeoutMs;
+    private final Map<Key, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Outcomes> outcomes = new ConcurrentHashMap<>(); // "MovieService.findbyId" -> counts
+
+    public ReadCoalescing(BulkheadTransactionManager transactionManager,
+            @Value("${kmdb.coalesce.enabled:true}") boolean enabled,
+            @Value("${kmdb.coalesce.timeout-ms:2000}") long timeoutMs) {
+        if (timeoutMs < 1) {
+            throw new IllegalArgumentException("kmdb.coalesce.timeout-ms must be >= 1");
+        }
+        this.transactionManager = transactionManager;
+        this.enabled = enabled;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Around("@annotation(coalesced)")
+    public Object coalesce(ProceedingJoinPoint call, Coalesced coalesced) throws Throwable {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return call.proceed();
+        }
+        Method method = ((MethodSignature) call.getSignature()).getMethod();
+        Outcomes counts = outcomes.computeIfAbsent(
+                method.getDeclaringClass().getSimpleName() + "." + method.getName(), name -> new Outcomes());
+        Key key = new Key(method, Arrays.asList(call.getArgs()));
+        long now = System.nanoTime();
+        long commits = transactionManager.commits(); // Before the load: it sees at least these commits
+        Flight mine = new Flight(commits, now + TimeUnit.MILLISECONDS.toNanos(
+                coalesced.timeoutMs() >= 0 ? coalesced.timeoutMs() : timeoutMs));
+
+        Flight[] replaced = new Flight[1];
+        Flight flight = inFlight.compute(key, (k, running) -> {
+            if (running != null && running.joinable(commits, now)) {
+                return running;
+            }
+            replaced[0] = running;
+            return mine;
+        });
+        if (flight == mine) {
+            if (replaced[0] != null) { // Not joined: a write committed since it started, or past its deadline
+                (replaced[0].commits != commits ? counts.stale : counts.timeouts).increment();
+            }
+            return lead(key, mine, call, counts);
+        }
+
+        try {
+            Object result = flight.result.get(flight.deadline - now, TimeUnit.NANOSECONDS);
+            counts.collapsed.increment();
+            return result;
+        } catch (ExecutionException e) {
+            counts.collapsed.increment();
+            throw e.getCause(); // Same 400/404/503 as the caller that ran it
+        } catch (TimeoutException e) {
+            counts.timeouts.increment();
+            return call.proceed();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared load", e);
+        }
+    }
+
+    private Object lead(Key key, Flight flight, ProceedingJoinPoint call, Outcomes counts) throws Throwable {
+        counts.loads.increment();
+        try {
+            Object result = call.proceed();
+            flight.result.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public long total(String outcome) {
+        return outcomes.values().stream().mapToLong(counts -> switch (outcome) {
+            case "loads" -> counts.loads.sum();
+            case "collapsed" -> counts.collapsed.sum();
+            case "timeouts" -> counts.timeouts.sum();
+            case "stale" -> counts.stale.sum();
+            default -> throw new IllegalArgumentException("Unknown outcome " + outcome);
+        }).sum();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> methods = new TreeMap<>();
+        outcomes.forEach((name, counts) -> {
+            Map<String, Long> method = new LinkedHashMap<>();
+            method.put("loads", counts.loads.sum());
+            method.put("collapsed", counts.collapsed.sum());
+            method.put("timeouts", counts.timeouts.sum());
+            method.put("stale", counts.stale.sum());
+            methods.put(name, method);
+        });
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", enabled);
+        body.put("timeoutMs", timeoutMs);
+        body.put("inFlight", inFlight.size());
+        for (String outcome : List.of("loads", "collapsed", "timeouts", "stale")) {
+            body.put(outcome, total(outcome));
+        }
+        body.put("methods", methods);
+        return body;
+    }
+}
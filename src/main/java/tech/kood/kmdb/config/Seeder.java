@@ -20,6 +20,7 @@ import tech.kood.kmdb.repository.MovieRepository;
 
 
 // Inserts the sample data >=5 Genres, >=20 Movies, >=15 Actors
+// or, with kmdb.seed.movies set, a generated catalog of that size (CatalogGenerator)
 @Configuration
 @Order(1)
 public class Seeder {
@@ -28,7 +29,8 @@ public class Seeder {
     CommandLineRunner seed(
             GenreRepository genreRepo,
             ActorRepository actorRepo,
-            MovieRepository movieRepo) {
+            MovieRepository movieRepo,
+            CatalogGenerator generator) {
         return args -> {
             System.out.println(">>> SEEDER: starting");
             boolean hasMovies = false;
@@ -41,6 +43,10 @@ public class Seeder {
                 System.out.println(">>> SEEDER: movies already present, skipping seed.");
                 return;
             }
+            if (generator.enabled()) {
+                generator.generate();
+                return;
+            }
 
             // Genres
             Map<String, Genre> genres = new HashMap<>();
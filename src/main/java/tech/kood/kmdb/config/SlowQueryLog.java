@@ -0,0 +1,185 @@
+package tech.kood.kmdb.config;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Receives every statement timed by StatementTimingDataSource (SQL, execution time until its results were
+// read, rows). Statements over kmdb.sql.slow-threshold-ms are logged as one JSON line each, a
+// kmdb.sql.sample-rate share of the others too. The kmdb.sql.top-n slowest distinct statements are kept for
+// GET /api/admin/slow-queries. The origin (first service method on the stack, else the first app frame) is only
+// looked up for statements that get logged or kept.
+@Component
+public class SlowQueryLog {
+
+    private static final Logger LOG = LoggerFactory.getLogger("kmdb.sql");
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final StackWalker STACK = StackWalker.getInstance();
+    private static final String APP = "tech.kood.kmdb.";
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final int topN;
+    private final Map<String, Entry> slowest = new ConcurrentHashMap<>(); // SQL -> slowest run, changed under lock
+    private volatile long floorNanos; // Fastest kept entry once the table is full: anything faster is skipped
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong slow = new AtomicLong();
+
+    public SlowQueryLog(@Value("${kmdb.sql.slow-threshold-ms:100}") long thresholdMs,
+            @Value("${kmdb.sql.sample-rate:0}") double sampleRate,
+            @Value("${kmdb.sql.top-n:20}") int topN) {
+        if (thresholdMs < 0 || sampleRate < 0 || sampleRate > 1 || topN < 0) {
+            throw new IllegalArgumentException(
+                    "kmdb.sql.slow-threshold-ms and top-n must be >= 0, kmdb.sql.sample-rate between 0 and 1");
+        }
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.sampleRate = sampleRate;
+        this.topN = topN;
+    }
+
+    // rows: read from the result set, or updated; -1 if unknown
+    void record(String sql, long nanos, long rows) {
+        statements.incrementAndGet();
+        boolean isSlow = nanos >= thresholdNanos;
+        boolean sampled = !isSlow && sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        Entry kept = slowest.get(sql);
+        boolean keep = topN > 0 && nanos > floorNanos && (kept == null || nanos > kept.nanos());
+        if (!isSlow && !sampled && !keep) {
+            return; // The common case: a counter, a lookup and a few comparisons
+        }
+        String origin = origin();
+        if (isSlow || sampled) {
+            if (isSlow) {
+                slow.incrementAndGet();
+            }
+            log(isSlow, sql, nanos, rows, origin);
+        }
+        if (keep) {
+            keep(new Entry(sql, nanos, rows, origin, Instant.now()));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        List<Entry> entries = new ArrayList<>(slowest.values());
+        entries.sort(Comparator.comparingLong(Entry::nanos).reversed());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Entry entry : entries) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("ms", millis(entry.nanos()));
+            row.put("rows", entry.rows());
+            row.put("origin", entry.origin());
+            row.put("at", entry.at().toString());
+            row.put("sql", entry.sql());
+            rows.add(row);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("thresholdMs", millis(thresholdNanos));
+        body.put("sampleRate", sampleRate);
+        body.put("statements", statements.get());
+        body.put("slowStatements", slow.get());
+        body.put("slowest", rows);
+        return body;
+    }
+
+    public void clear() {
+        synchronized (slowest) {
+            slowest.clear();
+            floorNanos = 0;
+        }
+    }
+
+    private void keep(Entry entry) {
+        synchronized (slowest) {
+            Entry previous = slowest.get(entry.sql());
+            if (previous != null) {
+                if (entry.nanos() > previous.nanos()) {
+                    slowest.put(entry.sql(), entry);
+                }
+            } else if (slowest.size() < topN) {
+                slowest.put(entry.sql(), entry);
+            } else {
+                Entry fastest = fastest();
+                if (entry.nanos() <= fastest.nanos()) {
+                    return;
+                }
+                slowest.remove(fastest.sql());
+                slowest.put(entry.sql(), entry);
+            }
+            floorNanos = slowest.size() < topN ? 0 : fastest().nanos();
+        }
+    }
+
+    private Entry fastest() {
+        return slowest.values().stream().min(Comparator.comparingLong(Entry::nanos)).orElseThrow();
+    }
+
+    private static void log(boolean isSlow, String sql, long nanos, long rows, String origin) {
+        if (isSlow ? !LOG.isWarnEnabled() : !LOG.isInfoEnabled()) {
+            return;
+        }
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("event", isSlow ? "slow_statement" : "sampled_statement");
+        line.put("ms", millis(nanos));
+        line.put("rows", rows);
+        line.put("origin", origin);
+        line.put("thread", Thread.currentThread().getName());
+        line.put("sql", sql);
+        try {
+            String json = JSON.writeValueAsString(line);
+            if (isSlow) {
+                LOG.warn(json);
+            } else {
+                LOG.info(json);
+            }
+        } catch (JsonProcessingException e) {
+            LOG.warn("Could not log statement: {}", e.getMessage());
+        }
+    }
+
+    // Class.method of the service call that ran the statement (Spring proxies and the timing classes skipped)
+    private static String origin() {
+        return STACK.walk(frames -> {
+            String app = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String type = frame.getClassName();
+                if (!type.startsWith(APP) || type.contains("$$") || type.startsWith(StatementTimingDataSource.class.getName())
+                        || type.equals(SlowQueryLog.class.getName())) {
+                    continue;
+                }
+                String method = frame.getMethodName();
+                if (method.startsWith("lambda$")) { // lambda$findByName$2 -> findByName
+                    method = method.substring(7, Math.max(7, method.lastIndexOf('$')));
+                }
+                String name = type.substring(type.lastIndexOf('.') + 1) + "." + method;
+                if (type.startsWith(APP + "service.") && !type.startsWith(APP + "service.WriteQueue")) {
+                    return name;
+                }
+                if (app == null) {
+                    app = name;
+                }
+            }
+            return app;
+        });
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private record Entry(String sql, long nanos, long rows, String origin, Instant at) {}
+}
@@ -0,0 +1,194 @@
+package tech.kood.kmdb.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+// Times every statement at the JDBC level and hands it to the SlowQueryLog: SQL, rows and the time from execute
+// until the result set is closed (SQLite computes rows while they are read, not in executeQuery).
+// Connections, statements and result sets are wrapped in JDK proxies that only look at the execute*, next and
+// close calls and pass everything else through.
+public class StatementTimingDataSource extends DelegatingDataSource {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public StatementTimingDataSource(DataSource target, SlowQueryLog slowQueryLog) {
+        super(target);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection connection(Connection target) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> statement(Statement.class, (Statement) result, null);
+                case "prepareStatement" -> statement(PreparedStatement.class, (PreparedStatement) result, (String) args[0]);
+                case "prepareCall" -> statement(CallableStatement.class, (CallableStatement) result, (String) args[0]);
+                default -> result;
+            };
+        });
+    }
+
+    private <S extends Statement> S statement(Class<S> type, S target, String sql) {
+        Timing timing = new Timing(target, sql);
+        S proxy = proxy(type, timing);
+        timing.proxy = proxy;
+        return proxy;
+    }
+
+    // One statement, executed any number of times (prepared statements are reused for batches)
+    private final class Timing implements InvocationHandler {
+        final Statement target;
+        Statement proxy;
+        String sql;
+        long start; // 0: no execution in progress
+        long rows;
+        int execution; // A result set of an earlier execution no longer counts
+
+        Timing(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                finish(); // A previous result set left open is closed by the driver now
+                if (args != null && args.length > 0 && args[0] instanceof String text) {
+                    sql = text;
+                }
+                execution++;
+                start = System.nanoTime();
+                Object result;
+                try {
+                    result = StatementTimingDataSource.invoke(target, method, args);
+                } catch (Throwable e) {
+                    start = 0;
+                    throw e;
+                }
+                return switch (name) {
+                    case "executeQuery" -> resultSet((ResultSet) result);
+                    case "execute" -> {
+                        if (!(Boolean) result) { // An update, no result set to read
+                            rows = target.getUpdateCount();
+                            finish();
+                        }
+                        yield result;
+                    }
+                    case "executeBatch", "executeLargeBatch" -> {
+                        rows = batchRows(result);
+                        finish();
+                        yield result;
+                    }
+                    default -> { // executeUpdate, executeLargeUpdate
+                        rows = ((Number) result).longValue();
+                        finish();
+                        yield result;
+                    }
+                };
+            }
+            return switch (name) {
+                case "getResultSet" -> {
+                    ResultSet resultSet = (ResultSet) StatementTimingDataSource.invoke(target, method, args);
+                    yield resultSet != null && start != 0 ? resultSet(resultSet) : resultSet;
+                }
+                case "addBatch" -> {
+                    if (args != null && args.length == 1 && args[0] instanceof String text) {
+                        sql = text; // Plain statement batch: the last statement stands for the batch
+                    }
+                    yield StatementTimingDataSource.invoke(target, method, args);
+                }
+                case "close" -> {
+                    finish();
+                    yield StatementTimingDataSource.invoke(target, method, args);
+                }
+                default -> StatementTimingDataSource.invoke(target, method, args);
+            };
+        }
+
+        private ResultSet resultSet(ResultSet target) {
+            int of = execution;
+            return proxy(ResultSet.class, (p, method, args) -> switch (method.getName()) {
+                case "next" -> {
+                    Object hasRow = StatementTimingDataSource.invoke(target, method, args);
+                    if ((Boolean) hasRow && of == execution) {
+                        rows++;
+                    }
+                    yield hasRow;
+                }
+                case "close" -> {
+                    Object result = StatementTimingDataSource.invoke(target, method, args);
+                    if (of == execution) {
+                        finish();
+                    }
+                    yield result;
+                }
+                case "getStatement" -> proxy;
+                default -> StatementTimingDataSource.invoke(target, method, args);
+            });
+        }
+
+        private void finish() {
+            if (start != 0) {
+                slowQueryLog.record(sql, System.nanoTime() - start, rows);
+                start = 0;
+            }
+            rows = 0;
+        }
+
+        private static long batchRows(Object counts) {
+            long total = 0;
+            if (counts instanceof int[] ints) {
+                for (int count : ints) {
+                    total += Math.max(count, 0); // SUCCESS_NO_INFO (-2) counts as 0
+                }
+            } else if (counts instanceof long[] longs) {
+                for (long count : longs) {
+                    total += Math.max(count, 0);
+                }
+            }
+            return total;
+        }
+    }
+
+    // Proxies compare by identity, whatever the wrapped object does
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        InvocationHandler identity = (p, method, args) -> switch (method.getName()) {
+            case "equals" -> p == args[0];
+            case "hashCode" -> System.identityHashCode(p);
+            default -> handler.invoke(p, method, args);
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, identity);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -1,11 +1,10 @@
 package tech.kood.kmdb.controller;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,82 +13,142 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.validation.Valid;
+import tech.kood.kmdb.dto.ActorDTO;
+import tech.kood.kmdb.dto.Fields;
+import tech.kood.kmdb.dto.MovieDTO;
 import tech.kood.kmdb.model.Actor;
-import tech.kood.kmdb.model.Movie;
+import tech.kood.kmdb.service.DeleteJobService;
 import tech.kood.kmdb.service.ActorService;
+import tech.kood.kmdb.service.ResponseCache;
+import tech.kood.kmdb.service.WriteQueue;
 
 // CRUD endpoints for Actor + Filtering by name.
-// Extra: Pagination with page and size
+// Extra: Pagination with page and size, or keyset with ?after=<cursor>
+// Writes (create, patch, delete) go through the single-writer queue, responses are mapped inside its transaction.
+// Extra: Async force delete (?force=true&async=true) tracked under /api/jobs
+// Extra: Single actor from the serialized response cache, with its ETag (If-None-Match -> 304)
+// Extra: Sparse fieldsets on the reads, ?fields=id,name and/or ?include=movies (Fields)
 @RestController
 @RequestMapping("/api/actors")
 public class ActorController {
      
     private final ActorService actorService;
+    private final DeleteJobService deleteJobService;
+    private final WriteQueue writeQueue;
+    private final ResponseCache responseCache;
 
-    public ActorController(ActorService actorService) {
+    public ActorController(ActorService actorService, DeleteJobService deleteJobService, WriteQueue writeQueue,
+            ResponseCache responseCache) {
         this.actorService = actorService;
+        this.deleteJobService = deleteJobService;
+        this.writeQueue = writeQueue;
+        this.responseCache = responseCache;
     }
 
     // CRUD
 
-    @PostMapping // 201 + created entity
-    public ResponseEntity<Actor> create(@Valid @RequestBody Actor actor) {
-        Actor created = actorService.create(actor);
+    @PostMapping // 201 + created actor
+    public ResponseEntity<ActorDTO> create(@Valid @RequestBody Actor actor) {
+        ActorDTO created = writeQueue.execute(() -> ActorDTO.of(actorService.create(actor)));
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
     @GetMapping // 200 + list (optional ?name=)
-    public ResponseEntity<List<Actor>> findAllOrByName(@RequestParam(required = false) String name) {
-        List<Actor> list = (name != null && !name.isBlank())
-        ? actorService.findByNameContainingIgnoreCase(name)
-        : actorService.findAll();
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> findAllOrByName(@RequestParam(required = false) String name,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+        Fields shown = ActorDTO.fields(fields, include);
+        List<ActorDTO> list = (name != null && !name.isBlank())
+        ? actorService.findByNameContainingIgnoreCase(name, shown)
+        : actorService.findAll(shown);
+        return ResponseEntity.ok(SparseJson.of(list, shown));
     }
 
     @GetMapping(params = {"page", "size"})
     public ResponseEntity<?> findAllOrByName(
         @RequestParam(required = false) String name,
-        Pageable pageable) {
+        Pageable pageable,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
 
         if (pageable.getPageNumber() < 0 || pageable.getPageSize() < 1 || pageable.getPageSize() > 100) {
             String message = "Invalid pagination parameters: Page must be >= 0 and size must be between 1 and 100.";
             return ResponseEntity.badRequest().body(message);
         }
 
-        Page<Actor> page = (name != null && !name.isBlank()) 
-        ? actorService.findByNameContainingIgnoreCase(name, pageable) 
-        : actorService.findAll(pageable);
+        Fields shown = ActorDTO.fields(fields, include);
+        Page<ActorDTO> page = (name != null && !name.isBlank()) 
+        ? actorService.findByNameContainingIgnoreCase(name, pageable, shown) 
+        : actorService.findAll(pageable, shown);
 
-        return ResponseEntity.ok(page);
+        return ResponseEntity.ok(SparseJson.of(page, shown));
     }
 
-    @GetMapping("/{id}") // 200 or 404
-    public ResponseEntity<Actor> findOne(@PathVariable Long id) {
-        Optional<Actor> a = actorService.findbyId(id);
-        return ResponseEntity.of(Objects.requireNonNull(a));
+    @GetMapping(params = "ids") // ?ids=3,1,2 -> actors in that order + missing ids (at most MultiGet.MAX_IDS)
+    public ResponseEntity<?> findAllById(@RequestParam List<Long> ids,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+        Fields shown = ActorDTO.fields(fields, include);
+        return ResponseEntity.ok(SparseJson.of(actorService.findAllById(ids, shown), shown));
     }
 
-    @PatchMapping("/{id}") // 200 + updated entity
-    public ResponseEntity<Actor> patch(@PathVariable Long id, @Valid @RequestBody Actor partial) {
-        return actorService.update(id, partial)
+    @GetMapping(params = "after") // Keyset: ?after=<cursor, empty for the first window>&size=&sort=id|name (optional ?name=)
+    public ResponseEntity<?> scroll(
+        @RequestParam String after,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "id") String sort,
+        @RequestParam(required = false) String name,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+
+        if (size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body("Invalid pagination parameters: size must be between 1 and 100.");
+        }
+        Fields shown = ActorDTO.fields(fields, include);
+        return ResponseEntity.ok(SparseJson.of(actorService.scroll(name, sort, after, size, shown), shown));
+    }
+
+    @GetMapping("/{id}") // 200 or 404, JSON bytes from the response cache (a sparse read isn't cached, has no ETag)
+    public ResponseEntity<?> findOne(@PathVariable Long id,
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+        Fields shown = ActorDTO.fields(fields, include);
+        if (!shown.isAll()) {
+            return ResponseEntity.of(actorService.findbyId(id, shown).map(actor -> SparseJson.of(actor, shown)));
+        }
+        return CachedJson.of(responseCache.actor(id, () -> actorService.findbyId(id, Fields.ALL)), acceptEncoding);
+    }
+
+    @PatchMapping("/{id}") // 200 + updated actor
+    public ResponseEntity<ActorDTO> patch(@PathVariable Long id, @Valid @RequestBody Actor partial) {
+        return writeQueue.execute(() -> actorService.update(id, partial).map(ActorDTO::of))
         .map(ResponseEntity::ok)
         .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    @DeleteMapping("/{id}") // ?force= -> 204/400
-    public ResponseEntity<Void> delete(@PathVariable Long id,
-    @RequestParam(name = "force", defaultValue = "false") boolean force) {
-        actorService.delete(id, force);
+    @DeleteMapping("/{id}") // ?force= -> 204/400, &async=true -> 202 + job (GET /api/jobs/{jobId})
+    public ResponseEntity<?> delete(@PathVariable Long id,
+    @RequestParam(name = "force", defaultValue = "false") boolean force,
+    @RequestParam(name = "async", defaultValue = "false") boolean async) {
+        if (async) {
+            return JobController.accepted(deleteJobService.deleteActor(id, force));
+        }
+        writeQueue.execute(() -> actorService.delete(id, force));
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/{id}/movies") // 200 + list (or empty)
-    public List<Movie> moviesForActor(@PathVariable Long id) {
-        return actorService.getMoviesForActor(id);
+    public ResponseEntity<?> moviesForActor(@PathVariable Long id,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+        Fields shown = MovieDTO.fields(fields, include);
+        return ResponseEntity.ok(SparseJson.of(actorService.getMoviesForActor(id, shown), shown));
     }
 }
@@ -0,0 +1,83 @@
+package tech.kood.kmdb.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import tech.kood.kmdb.config.Bulkhead;
+import tech.kood.kmdb.config.ReadCoalescing;
+import tech.kood.kmdb.config.SlowQueryLog;
+import tech.kood.kmdb.service.CatalogCache;
+import tech.kood.kmdb.service.ResponseCache;
+import tech.kood.kmdb.service.WriteQueue;
+
+// Operational endpoints: cache, write queue, bulkhead, read coalescing and slow query statistics
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final CatalogCache catalogCache;
+    private final WriteQueue writeQueue;
+    private final Bulkhead readBulkhead;
+    private final Bulkhead writeBulkhead;
+    private final SlowQueryLog slowQueryLog;
+    private final ResponseCache responseCache;
+    private final ReadCoalescing readCoalescing;
+
+    public AdminController(CatalogCache catalogCache, WriteQueue writeQueue, Bulkhead readBulkhead,
+            Bulkhead writeBulkhead, SlowQueryLog slowQueryLog, ResponseCache responseCache,
+            ReadCoalescing readCoalescing) {
+        this.catalogCache = catalogCache;
+        this.writeQueue = writeQueue;
+        this.readBulkhead = readBulkhead;
+        this.writeBulkhead = writeBulkhead;
+        this.slowQueryLog = slowQueryLog;
+        this.responseCache = responseCache;
+        this.readCoalescing = readCoalescing;
+    }
+
+    @GetMapping("/cache") // 200 + hit/miss/put/eviction counts per region, then the response cache
+    public Map<String, Object> cacheStats() {
+        Map<String, Object> body = new LinkedHashMap<>(catalogCache.stats());
+        body.put("responses", responseCache.stats());
+        return body;
+    }
+
+    @DeleteMapping("/cache") // 204, empties every region and the response cache
+    public ResponseEntity<Void> evictCache() {
+        catalogCache.evictAll();
+        responseCache.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/writes") // 200 + queue depth, commits, batch size histogram, busy retries
+    public Map<String, Object> writeStats() {
+        return writeQueue.stats();
+    }
+
+    @GetMapping("/bulkheads") // 200 + permits in use, waiting and rejected threads per pool
+    public Map<String, Object> bulkheadStats() {
+        return Map.of("read", readBulkhead.stats(), "write", writeBulkhead.stats());
+    }
+
+    @GetMapping("/coalescing") // 200 + loads run and calls collapsed into them, per @Coalesced method
+    public Map<String, Object> coalescingStats() {
+        return readCoalescing.stats();
+    }
+
+    @GetMapping("/slow-queries") // 200 + the slowest distinct statements (time, rows, origin, SQL), slowest first
+    public Map<String, Object> slowQueries() {
+        return slowQueryLog.stats();
+    }
+
+    @DeleteMapping("/slow-queries") // 204, starts a new top-N table
+    public ResponseEntity<Void> clearSlowQueries() {
+        slowQueryLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
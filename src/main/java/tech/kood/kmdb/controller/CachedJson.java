@@ -0,0 +1,34 @@
+package tech.kood.kmdb.controller;
+
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import tech.kood.kmdb.service.ResponseCache;
+
+// 200 + the cached JSON bytes (gzipped if the cache keeps gzip and the client accepts it) and their ETag, or 404.
+// A matching If-None-Match turns the 200 into a 304 (HttpEntityMethodProcessor), a cached body needs no query.
+final class CachedJson {
+
+    private CachedJson() {}
+
+    static ResponseEntity<byte[]> of(Optional<ResponseCache.Body> body, String acceptEncoding) {
+        if (body.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        ResponseCache.Body cached = body.get();
+        boolean gzipped = cached.isGzipped() && acceptEncoding != null && acceptEncoding.contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(cached.etag(gzipped));
+        if (cached.isGzipped()) {
+            response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (gzipped) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(cached.bytes(gzipped));
+    }
+}
@@ -0,0 +1,34 @@
+package tech.kood.kmdb.controller;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import tech.kood.kmdb.service.MovieExportService;
+
+// Whole-catalog dumps for downstream systems, streamed (constant memory)
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private final MovieExportService movieExportService;
+
+    public ExportController(MovieExportService movieExportService) {
+        this.movieExportService = movieExportService;
+    }
+
+    @GetMapping("/movies") // ?format=ndjson|csv -> 200 + streamed file, 400 on unknown format
+    public ResponseEntity<StreamingResponseBody> exportMovies(@RequestParam(defaultValue = "ndjson") String format) {
+        MovieExportService.Format f = MovieExportService.Format.parse(format);
+        ContentDisposition file = ContentDisposition.attachment().filename("movies." + f.extension()).build();
+        return ResponseEntity.ok()
+            .contentType(f.mediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, file.toString())
+            .body(out -> movieExportService.export(f, out));
+    }
+}
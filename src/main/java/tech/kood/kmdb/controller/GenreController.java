@@ -1,88 +1,153 @@
 package tech.kood.kmdb.controller;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
+import tech.kood.kmdb.dto.Fields;
+import tech.kood.kmdb.dto.GenreDTO;
+import tech.kood.kmdb.dto.MovieDTO;
 import tech.kood.kmdb.model.Genre;
-import tech.kood.kmdb.model.Movie;
+import tech.kood.kmdb.service.CatalogRevision;
+import tech.kood.kmdb.service.DeleteJobService;
 import tech.kood.kmdb.service.GenreService;
+import tech.kood.kmdb.service.ResponseCache;
+import tech.kood.kmdb.service.ResponseCache.Kind;
+import tech.kood.kmdb.service.WriteQueue;
 
 // CRUD endpoints for Genre
-// Extra: Pagination with page and size
+// Extra: Pagination with page and size, or keyset with ?after=<cursor>
+// Writes (create, patch, delete) go through the single-writer queue, responses are mapped inside its transaction.
+// Extra: Async force delete (?force=true&async=true) tracked under /api/jobs
+// Extra: ETags on the list and single genres, conditional GET (If-None-Match -> 304)
+// Extra: Sparse fieldsets on the reads, ?fields=id,name and/or ?include=movies (Fields)
 @RestController
 @RequestMapping("/api/genres")
 public class GenreController {
     
     private final GenreService genreService;
+    private final DeleteJobService deleteJobService;
+    private final WriteQueue writeQueue;
+    private final ResponseCache responseCache;
+    private final CatalogRevision catalogRevision;
 
-    public GenreController(GenreService genreService) {
+    public GenreController(GenreService genreService, DeleteJobService deleteJobService, WriteQueue writeQueue,
+            ResponseCache responseCache, CatalogRevision catalogRevision) {
         this.genreService = genreService;
+        this.deleteJobService = deleteJobService;
+        this.writeQueue = writeQueue;
+        this.responseCache = responseCache;
+        this.catalogRevision = catalogRevision;
     }
 
     // CRUD
 
-    @PostMapping // 201 + created entity
-    public ResponseEntity<Genre> create(@Valid @RequestBody Genre genre) {
-        Genre created = genreService.create(genre);
+    @PostMapping // 201 + created genre
+    public ResponseEntity<GenreDTO> create(@Valid @RequestBody Genre genre) {
+        GenreDTO created = writeQueue.execute(() -> GenreDTO.of(genreService.create(genre)));
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
-    @GetMapping // 200 + list
-    public ResponseEntity<List<Genre>> findAll() {
-        return ResponseEntity.ok(genreService.findAll());
+    @GetMapping // 200 + list, 304 if If-None-Match still matches (no genre or movie changed since)
+    public ResponseEntity<?> findAll(WebRequest request,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+        Fields shown = GenreDTO.fields(fields, include);
+        if (request.checkNotModified(catalogRevision.etag("genres" + shown.key(), Kind.GENRE, Kind.MOVIE))) {
+            return null;
+        }
+        return ResponseEntity.ok(SparseJson.of(genreService.findAll(shown), shown));
     }
 
     @GetMapping(params = {"page", "size"})
-    public ResponseEntity<?> findAll(Pageable pageable) {
+    public ResponseEntity<?> findAll(Pageable pageable,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
          if (pageable.getPageNumber() < 0 || pageable.getPageSize() < 1 || pageable.getPageSize() > 100) {
             String message = "Invalid pagination parameters: Page must be >= 0 and size must be between 1 and 100.";
             return ResponseEntity.badRequest().body(message);
         }
 
-        Page<Genre> page = genreService.findAll(pageable);
-        return ResponseEntity.ok(page);
+        Fields shown = GenreDTO.fields(fields, include);
+        Page<GenreDTO> page = genreService.findAll(pageable, shown);
+        return ResponseEntity.ok(SparseJson.of(page, shown));
+    }
+
+    @GetMapping(params = "ids") // ?ids=3,1,2 -> genres in that order + missing ids (at most MultiGet.MAX_IDS)
+    public ResponseEntity<?> findAllById(@RequestParam List<Long> ids,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+        Fields shown = GenreDTO.fields(fields, include);
+        return ResponseEntity.ok(SparseJson.of(genreService.findAllById(ids, shown), shown));
     }
 
-    @GetMapping("/{id}") // 200 or 404
-    public ResponseEntity<Genre> findOne(@PathVariable Long id) {
-        Optional<Genre> g = genreService.findbyId(id);
-        return ResponseEntity.of(Objects.requireNonNull(g));
+    @GetMapping(params = "after") // Keyset: ?after=<cursor, empty for the first window>&size=&sort=id|name
+    public ResponseEntity<?> scroll(
+        @RequestParam String after,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "id") String sort,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+
+        if (size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body("Invalid pagination parameters: size must be between 1 and 100.");
+        }
+        Fields shown = GenreDTO.fields(fields, include);
+        return ResponseEntity.ok(SparseJson.of(genreService.scroll(sort, after, size, shown), shown));
     }
 
-    @PatchMapping("/{id}") // 200 + updated entity
-    public ResponseEntity<Genre> updateName(@PathVariable Long id, @Valid @RequestBody UpdateName body) {
+    @GetMapping("/{id}") // 200 or 404, JSON bytes from the response cache (a sparse read isn't cached, has no ETag)
+    public ResponseEntity<?> findOne(@PathVariable Long id,
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+        Fields shown = GenreDTO.fields(fields, include);
+        if (!shown.isAll()) {
+            return ResponseEntity.of(genreService.findbyId(id, shown).map(genre -> SparseJson.of(genre, shown)));
+        }
+        return CachedJson.of(responseCache.genre(id, () -> genreService.findbyId(id, Fields.ALL)), acceptEncoding);
+    }
+
+    @PatchMapping("/{id}") // 200 + updated genre
+    public ResponseEntity<GenreDTO> updateName(@PathVariable Long id, @Valid @RequestBody UpdateName body) {
         if (body == null || body.name() == null || body.name().isBlank()) {
             return ResponseEntity.badRequest().build();
         }
         
-        return genreService.updateName(id, body.name())
+        return writeQueue.execute(() -> genreService.updateName(id, body.name()).map(GenreDTO::of))
         .map(ResponseEntity::ok)
         .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    @DeleteMapping("/{id}") // ?force=true|false -> 204/400
-    public ResponseEntity<Void> delete(@PathVariable Long id,
-    @RequestParam(name = "force", defaultValue = "false") boolean force) {
+    @DeleteMapping("/{id}") // ?force=true|false -> 204/400, &async=true -> 202 + job (GET /api/jobs/{jobId})
+    public ResponseEntity<?> delete(@PathVariable Long id,
+    @RequestParam(name = "force", defaultValue = "false") boolean force,
+    @RequestParam(name = "async", defaultValue = "false") boolean async) {
+        if (async) {
+            return JobController.accepted(deleteJobService.deleteGenre(id, force));
+        }
         if (force) {
-            genreService.delete(id, true);
+            writeQueue.execute(() -> genreService.delete(id, true));
         } else {
-            genreService.delete(id, false); // enforce default, block if related
+            writeQueue.execute(() -> genreService.delete(id, false)); // enforce default, block if related
         }
 
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/{id}/movies") // 200 + list (or empty)
-    public List<Movie> moviesByGenre(@PathVariable Long id) {
-        return genreService.findMoviesByGenre(id);
+    public ResponseEntity<?> moviesByGenre(@PathVariable Long id,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+        Fields shown = MovieDTO.fields(fields, include);
+        return ResponseEntity.ok(SparseJson.of(genreService.findMoviesByGenre(id, shown), shown));
     }
 
     // Patch { "name" : "New Name"}
@@ -0,0 +1,36 @@
+package tech.kood.kmdb.controller;
+
+import java.net.URI;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import tech.kood.kmdb.dto.JobStatus;
+import tech.kood.kmdb.service.DeleteJobService;
+
+// Progress of asynchronous jobs (DELETE ...?force=true&async=true answers 202 with the job)
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final DeleteJobService deleteJobService;
+
+    public JobController(DeleteJobService deleteJobService) {
+        this.deleteJobService = deleteJobService;
+    }
+
+    @GetMapping("/{id}") // 200 + progress or 404 (unknown, or forgotten after a restart)
+    public ResponseEntity<JobStatus> findById(@PathVariable String id) {
+        return deleteJobService.find(id)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // 202 + job, Location points at its progress
+    static ResponseEntity<JobStatus> accepted(JobStatus job) {
+        return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.id())).body(job);
+    }
+}
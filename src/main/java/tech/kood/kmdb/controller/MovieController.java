@@ -1,12 +1,13 @@
 package tech.kood.kmdb.controller;
 
+import java.io.InputStream;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,63 +15,116 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
+import tech.kood.kmdb.dto.ActorDTO;
+import tech.kood.kmdb.dto.Fields;
+import tech.kood.kmdb.dto.ImportReport;
+import tech.kood.kmdb.dto.MovieDTO;
+import tech.kood.kmdb.dto.MovieFacets;
+import tech.kood.kmdb.dto.MovieFilter;
 import tech.kood.kmdb.dto.MoviePatchDTO;
-import tech.kood.kmdb.model.Actor;
 import tech.kood.kmdb.model.Movie;
+import tech.kood.kmdb.service.CatalogRevision;
+import tech.kood.kmdb.service.DeleteJobService;
+import tech.kood.kmdb.service.MovieFacetIndex;
+import tech.kood.kmdb.service.MovieImportService;
 import tech.kood.kmdb.service.MovieService;
-
-// CRUD endpoints for Movie + Filtering by genre/year/actor.
-// Extra: Pagination with page and size
+import tech.kood.kmdb.service.ResponseCache;
+import tech.kood.kmdb.service.ResponseCache.Kind;
+import tech.kood.kmdb.service.WriteQueue;
+
+// CRUD endpoints for Movie + Filtering by genre/year/actor (combinable, plus duration and title).
+// Extra: Pagination with page and size, or keyset with ?after=<cursor>
+// Writes (create, patch, delete) go through the single-writer queue, responses are mapped inside its transaction.
+// Extra: Async force delete (?force=true&async=true) tracked under /api/jobs
 // Extra: Title search
+// Extra: NDJSON bulk import
+// Extra: Facet counts from the in-memory bitmap index
+// Extra: Single movie served from the serialized response cache
+// Extra: ETags on a movie and its actors, conditional GET (If-None-Match -> 304)
+// Extra: Sparse fieldsets on the reads, ?fields=id,title and/or ?include=genres,actors (Fields)
 @RestController
 @RequestMapping("/api/movies")
 public class MovieController {
 
     private final MovieService movieService;
-
-    public MovieController(MovieService movieService) {
+    private final MovieImportService movieImportService;
+    private final MovieFacetIndex movieFacetIndex;
+    private final DeleteJobService deleteJobService;
+    private final WriteQueue writeQueue;
+    private final ResponseCache responseCache;
+    private final CatalogRevision catalogRevision;
+
+    public MovieController(MovieService movieService, MovieImportService movieImportService,
+            MovieFacetIndex movieFacetIndex, DeleteJobService deleteJobService, WriteQueue writeQueue,
+            ResponseCache responseCache, CatalogRevision catalogRevision) {
         this.movieService = movieService;
+        this.movieImportService = movieImportService;
+        this.movieFacetIndex = movieFacetIndex;
+        this.deleteJobService = deleteJobService;
+        this.writeQueue = writeQueue;
+        this.responseCache = responseCache;
+        this.catalogRevision = catalogRevision;
     }
 
     // CRUD
 
-    @PostMapping // 201 + created entity
-    public ResponseEntity<Movie> create(@Valid @RequestBody Movie movie) {
-        Movie created = movieService.create(movie);
+    @PostMapping // 201 + created movie
+    public ResponseEntity<MovieDTO> create(@Valid @RequestBody Movie movie) {
+        MovieDTO created = writeQueue.execute(() -> MovieDTO.of(movieService.create(movie)));
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
-     @GetMapping("/{id}") // 200 or 404
-    public ResponseEntity<Movie> findOne(@PathVariable Long id) {
-        Optional<Movie> m = movieService.findbyId(id);
-        return ResponseEntity.of(Objects.requireNonNull(m));
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE) // 200 + import report
+    public ResponseEntity<ImportReport> importMovies(
+        InputStream body, // Streamed line by line, never buffered whole
+        @RequestParam(required = false) Integer chunkSize
+    ) {
+        return ResponseEntity.ok(movieImportService.importNdjson(body, chunkSize));
     }
 
-    @PatchMapping("/{id}") // 200 + updated entity
-    public ResponseEntity<Movie> patch(@PathVariable Long id, @Valid @RequestBody MoviePatchDTO partial) {
-        return movieService.update(id, partial)
+    @GetMapping("/{id}") // 200 or 404, JSON bytes from the response cache (a sparse read isn't cached, has no ETag)
+    public ResponseEntity<?> findOne(@PathVariable Long id,
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+        Fields shown = MovieDTO.fields(fields, include);
+        if (!shown.isAll()) {
+            return ResponseEntity.of(movieService.findbyId(id, shown).map(movie -> SparseJson.of(movie, shown)));
+        }
+        return CachedJson.of(responseCache.movie(id, () -> movieService.findbyId(id, Fields.ALL)), acceptEncoding);
+    }
+
+    @PatchMapping("/{id}") // 200 + updated movie
+    public ResponseEntity<MovieDTO> patch(@PathVariable Long id, @Valid @RequestBody MoviePatchDTO partial) {
+        return writeQueue.execute(() -> movieService.update(id, partial).map(MovieDTO::of))
         .map(ResponseEntity::ok)
         .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    @DeleteMapping("/{id}") // ?force= -> 204/400
-    public ResponseEntity<Void> delete(@PathVariable Long id,
-    @RequestParam(name = "force", defaultValue = "false") boolean force) {
-        movieService.delete(id, force);
+    @DeleteMapping("/{id}") // ?force= -> 204/400, &async=true -> 202 + job (GET /api/jobs/{jobId})
+    public ResponseEntity<?> delete(@PathVariable Long id,
+    @RequestParam(name = "force", defaultValue = "false") boolean force,
+    @RequestParam(name = "async", defaultValue = "false") boolean async) {
+        if (async) {
+            return JobController.accepted(deleteJobService.deleteMovie(id, force));
+        }
+        writeQueue.execute(() -> movieService.delete(id, force));
         return ResponseEntity.noContent().build();
     }
 
-    @GetMapping // optional filters ?genre= ?year= ?actor=
+    @GetMapping // optional filters, combinable: ?genre=1,2&genreMatch=any|all&actor=&actorMatch=&year=|yearFrom=&yearTo=&minDuration=&maxDuration=&title=
     public ResponseEntity<?> findAllOrFiltered(
-        @RequestParam(required = false) Long genre,
-        @RequestParam(required = false) Integer year,
-        @RequestParam(required = false) Long actor,
-        Pageable pageable // ?page=&size=
+        MovieFilter filter,
+        Pageable pageable, // ?page=&size=
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include
         ) {
             // Tiny validation
             if (pageable.getPageNumber() < 0 || pageable.getPageSize() < 1 || pageable.getPageSize() > 100) {
@@ -78,33 +132,68 @@ public class MovieController {
                 return ResponseEntity.badRequest().body(message);
             }
 
-            int count = (genre != null ? 1 : 0) + (year != null ? 1: 0) + (actor != null ? 1 : 0);
-            if (count > 1) {
-                return ResponseEntity.badRequest().body("Use only ONE of: genre, year, actor");
-            }
+            Fields shown = MovieDTO.fields(fields, include);
+            Page<MovieDTO> page = movieService.search(filter, pageable, shown);
+            return ResponseEntity.ok(SparseJson.of(page, shown));
+        }
 
-            Page<Movie> page =
-            genre != null ? movieService.findByGenre(genre, pageable) :
-            year != null ? movieService.findByYear(year, pageable) :
-            actor != null ? movieService.findByActor(actor, pageable) :
-                            movieService.findAll(pageable);
+    @GetMapping(params = "ids") // ?ids=3,1,2 -> movies in that order + missing ids (at most MultiGet.MAX_IDS)
+    public ResponseEntity<?> findAllById(@RequestParam List<Long> ids,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+        Fields shown = MovieDTO.fields(fields, include);
+        return ResponseEntity.ok(SparseJson.of(movieService.findAllById(ids, shown), shown));
+    }
 
-            return ResponseEntity.ok(page);
+    @GetMapping(params = "after") // Keyset: ?after=<cursor, empty for the first window>&size=&sort=id|title|releaseYear + filters
+    public ResponseEntity<?> scroll(
+        @RequestParam String after,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "id") String sort,
+        MovieFilter filter,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include
+        ) {
+            if (size < 1 || size > 100) {
+                return ResponseEntity.badRequest().body("Invalid pagination parameters: size must be between 1 and 100.");
+            }
+
+            Fields shown = MovieDTO.fields(fields, include);
+            return ResponseEntity.ok(SparseJson.of(movieService.scroll(filter, sort, after, size, shown), shown));
         }
 
-    @GetMapping("/{id}/actors") // 200 + list (or empty)
-    public List<Actor> actorsForMovie(@PathVariable Long id) {
-        return movieService.getActorsForMovie(id);
+    @GetMapping("/facets") // Counts per genre/year + top actors for ?genre=&actor=&year=|yearFrom=&yearTo= (&actorLimit=20)
+    public ResponseEntity<MovieFacets> facets(
+        MovieFilter filter,
+        @RequestParam(defaultValue = "20") int actorLimit
+    ) {
+        return movieFacetIndex.facets(filter, actorLimit)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()); // Index still loading
+    }
+
+    @GetMapping("/{id}/actors") // 200 + list (or empty), 304 if If-None-Match still matches (no actor or movie changed since)
+    public ResponseEntity<?> actorsForMovie(@PathVariable Long id, WebRequest request,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include) {
+        Fields shown = ActorDTO.fields(fields, include);
+        if (request.checkNotModified(catalogRevision.etag("movie" + id + "-actors" + shown.key(), Kind.ACTOR, Kind.MOVIE))) {
+            return null;
+        }
+        return ResponseEntity.ok(SparseJson.of(movieService.getActorsForMovie(id, shown), shown));
     }
 
     @GetMapping("/search") // /search?title=matrix&page=0&size=10
-    public ResponseEntity<Page<Movie>> searchByTitle(
+    public ResponseEntity<?> searchByTitle(
         @RequestParam String title,
-        Pageable pageable
+        Pageable pageable,
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String include
     ) {
         if (pageable.getPageNumber() < 0 || pageable.getPageSize() < 1 || pageable.getPageSize() > 100) {
             return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(movieService.searchByTitle(title, pageable));
+        Fields shown = MovieDTO.fields(fields, include);
+        return ResponseEntity.ok(SparseJson.of(movieService.searchByTitle(title, pageable, shown), shown));
     }
 }
@@ -0,0 +1,25 @@
+package tech.kood.kmdb.controller;
+
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import tech.kood.kmdb.dto.Fields;
+
+// Response body that writes only the requested properties of every read model in it (a page, a list, one entity),
+// or the body as is for a full read
+final class SparseJson {
+
+    private SparseJson() {}
+
+    static Object of(Object body, Fields fields) {
+        if (fields.isAll()) {
+            return body;
+        }
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider()
+                .addFilter(Fields.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields.names())));
+        return value;
+    }
+}
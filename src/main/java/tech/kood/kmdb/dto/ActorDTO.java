@@ -0,0 +1,37 @@
+package tech.kood.kmdb.dto;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import tech.kood.kmdb.model.Actor;
+import tech.kood.kmdb.model.Movie;
+
+// Read model of an actor, same JSON shape as the entity (built inside the service transaction)
+// version (not serialized): actor version, ids and versions of its movies
+// movies is null, not loaded, when a sparse read (Fields) doesn't show it
+@JsonFilter(Fields.FILTER)
+public record ActorDTO(Long id, String name, LocalDate birthDate, List<MovieRef> movies, @JsonIgnore long version) {
+
+    public static final List<String> PROPERTIES = List.of("id", "name", "birthDate", "movies");
+    public static final List<String> COLLECTIONS = List.of("movies");
+
+    public static Fields fields(String fields, String include) {
+        return Fields.of(fields, include, PROPERTIES, COLLECTIONS);
+    }
+
+    public static ActorDTO of(Actor actor) {
+        return of(actor, Fields.ALL);
+    }
+
+    public static ActorDTO of(Actor actor, Fields fields) {
+        boolean movies = fields.has("movies");
+        return new ActorDTO(actor.getId(), actor.getName(), actor.getBirthDate(),
+                movies ? actor.getMovies().stream().map(MovieRef::of).sorted(Comparator.comparing(MovieRef::id)).toList() : null,
+                Versions.of(actor.getVersion())
+                        + (movies ? Versions.embedded(actor.getMovies(), Movie::getId, Movie::getVersion, 0) : 0));
+    }
+}
@@ -0,0 +1,13 @@
+package tech.kood.kmdb.dto;
+
+import java.time.LocalDate;
+
+import tech.kood.kmdb.model.Actor;
+
+// Actor as listed inside a movie (no back reference)
+public record ActorRef(Long id, String name, LocalDate birthDate) {
+
+    public static ActorRef of(Actor actor) {
+        return new ActorRef(actor.getId(), actor.getName(), actor.getBirthDate());
+    }
+}
@@ -0,0 +1,7 @@
+package tech.kood.kmdb.dto;
+
+import java.util.List;
+
+// One window of a keyset (cursor) listing. next is null on the last window,
+// otherwise pass it back as ?after= to get the following rows.
+public record CursorPage<T>(List<T> content, int size, String next) {}
@@ -0,0 +1,61 @@
+package tech.kood.kmdb.dto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Sparse fieldset of a read: ?fields=id,title and/or ?include=genres,actors -> the properties each entity shows.
+// fields alone: only those (id always). include alone: every plain property plus the listed collections.
+// Neither: ALL, the full read model. A collection that isn't shown is never touched, its join table never queried.
+// The JSON side is the "fields" @JsonFilter on MovieDTO, ActorDTO and GenreDTO.
+public record Fields(Set<String> names) {
+
+    public static final Fields ALL = new Fields(null);
+    public static final String FILTER = "fields";
+
+    // 400 (IllegalArgumentException) for a name the read model doesn't have
+    public static Fields of(String fields, String include, List<String> properties, List<String> collections) {
+        if (fields == null && include == null) {
+            return ALL;
+        }
+        Set<String> names = new TreeSet<>(); // Sorted: the same selection always gives the same key()
+        names.add("id");
+        if (fields != null) {
+            names.addAll(split(fields, properties, "fields"));
+        } else {
+            properties.stream().filter(p -> !collections.contains(p)).forEach(names::add);
+        }
+        if (include != null) {
+            names.addAll(split(include, collections, "include"));
+        }
+        return new Fields(names);
+    }
+
+    private static List<String> split(String value, List<String> allowed, String param) {
+        List<String> names = Arrays.stream(value.split(",")).map(String::trim).filter(n -> !n.isEmpty()).toList();
+        for (String name : names) {
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Invalid " + param + " '" + name + "': expected any of " + allowed + ".");
+            }
+        }
+        return names;
+    }
+
+    public boolean isAll() {
+        return names == null;
+    }
+
+    public boolean has(String name) {
+        return names == null || names.contains(name);
+    }
+
+    public boolean hasAll(List<String> names) {
+        return names.stream().allMatch(this::has);
+    }
+
+    // Tells the variants of one list apart, e.g. in its ETag: "" for ALL, "-id.title" otherwise
+    public String key() {
+        return names == null ? "" : "-" + String.join(".", names);
+    }
+}
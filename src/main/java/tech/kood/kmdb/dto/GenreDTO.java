@@ -0,0 +1,36 @@
+package tech.kood.kmdb.dto;
+
+import java.util.Comparator;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import tech.kood.kmdb.model.Genre;
+import tech.kood.kmdb.model.Movie;
+
+// Read model of a genre, same JSON shape as the entity (built inside the service transaction)
+// version (not serialized): genre version, ids and versions of its movies
+// movies is null, not loaded, when a sparse read (Fields) doesn't show it
+@JsonFilter(Fields.FILTER)
+public record GenreDTO(Long id, String name, List<MovieRef> movies, @JsonIgnore long version) {
+
+    public static final List<String> PROPERTIES = List.of("id", "name", "movies");
+    public static final List<String> COLLECTIONS = List.of("movies");
+
+    public static Fields fields(String fields, String include) {
+        return Fields.of(fields, include, PROPERTIES, COLLECTIONS);
+    }
+
+    public static GenreDTO of(Genre genre) {
+        return of(genre, Fields.ALL);
+    }
+
+    public static GenreDTO of(Genre genre, Fields fields) {
+        boolean movies = fields.has("movies");
+        return new GenreDTO(genre.getId(), genre.getName(),
+                movies ? genre.getMovies().stream().map(MovieRef::of).sorted(Comparator.comparing(MovieRef::id)).toList() : null,
+                Versions.of(genre.getVersion())
+                        + (movies ? Versions.embedded(genre.getMovies(), Movie::getId, Movie::getVersion, 0) : 0));
+    }
+}
@@ -0,0 +1,11 @@
+package tech.kood.kmdb.dto;
+
+import tech.kood.kmdb.model.Genre;
+
+// Genre as listed inside a movie (no back reference)
+public record GenreRef(Long id, String name) {
+
+    public static GenreRef of(Genre genre) {
+        return new GenreRef(genre.getId(), genre.getName());
+    }
+}
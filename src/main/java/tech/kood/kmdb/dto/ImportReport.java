@@ -0,0 +1,19 @@
+package tech.kood.kmdb.dto;
+
+import java.util.List;
+
+// Result of a bulk import: totals, throughput and what went wrong (line or whole chunk)
+public record ImportReport(
+    long lines,
+    long imported,
+    long failed,
+    int chunks,
+    int chunkSize,
+    long elapsedMs,
+    double rowsPerSecond,
+    List<Failure> failures
+) {
+
+    // fromLine == toLine for a single bad line, a range when a whole chunk was rolled back
+    public static record Failure(int chunk, long fromLine, long toLine, String message) {}
+}
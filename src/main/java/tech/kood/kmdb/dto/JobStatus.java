@@ -0,0 +1,23 @@
+package tech.kood.kmdb.dto;
+
+import java.time.Instant;
+
+// Snapshot of an asynchronous delete job: progress over the join rows and throughput so far.
+// state: QUEUED, RUNNING, SUCCEEDED or FAILED (error holds the cause), retries: steps rerun after SQLITE_BUSY
+public record JobStatus(
+    String id,
+    String type,
+    long targetId,
+    String state,
+    long totalLinks,
+    long removedLinks,
+    int chunks,
+    int retries,
+    double percent,
+    Instant submittedAt,
+    Instant startedAt,
+    Instant finishedAt,
+    long elapsedMs,
+    double linksPerSecond,
+    String error
+) {}
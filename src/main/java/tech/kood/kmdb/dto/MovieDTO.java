@@ -0,0 +1,42 @@
+package tech.kood.kmdb.dto;
+
+import java.util.Comparator;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import tech.kood.kmdb.model.Actor;
+import tech.kood.kmdb.model.Genre;
+import tech.kood.kmdb.model.Movie;
+
+// Read model of a movie, same JSON shape as the entity.
+// Built inside the service transaction, so serializing it never hits the database.
+// version (not serialized) changes whenever the JSON does: movie version, ids and versions of its genres/actors.
+// A sparse read (Fields) leaves the collections it doesn't show null, unloaded.
+@JsonFilter(Fields.FILTER)
+public record MovieDTO(Long id, String title, int releaseYear, int duration,
+        List<GenreRef> genres, List<ActorRef> actors, @JsonIgnore long version) {
+
+    public static final List<String> PROPERTIES = List.of("id", "title", "releaseYear", "duration", "genres", "actors");
+    public static final List<String> COLLECTIONS = List.of("genres", "actors");
+
+    public static Fields fields(String fields, String include) {
+        return Fields.of(fields, include, PROPERTIES, COLLECTIONS);
+    }
+
+    public static MovieDTO of(Movie movie) {
+        return of(movie, Fields.ALL);
+    }
+
+    public static MovieDTO of(Movie movie, Fields fields) {
+        boolean genres = fields.has("genres");
+        boolean actors = fields.has("actors");
+        return new MovieDTO(movie.getId(), movie.getTitle(), movie.getReleaseYear(), movie.getDuration(),
+                genres ? movie.getGenres().stream().map(GenreRef::of).sorted(Comparator.comparing(GenreRef::id)).toList() : null,
+                actors ? movie.getActors().stream().map(ActorRef::of).sorted(Comparator.comparing(ActorRef::id)).toList() : null,
+                Versions.of(movie.getVersion())
+                        + (genres ? Versions.embedded(movie.getGenres(), Genre::getId, Genre::getVersion, 1) : 0)
+                        + (actors ? Versions.embedded(movie.getActors(), Actor::getId, Actor::getVersion, 2) : 0));
+    }
+}
@@ -0,0 +1,12 @@
+package tech.kood.kmdb.dto;
+
+import java.util.List;
+import java.util.Map;
+
+// GET /api/movies/facets: movies matching the filter, and how many of them fall in each genre / year
+// (id -> count, zero counts left out) plus the top actors
+public record MovieFacets(long total, Map<Long, Integer> genres, Map<Integer, Integer> years,
+        List<ActorCount> actors, long elapsedMicros) {
+
+    public record ActorCount(long id, int count) {}
+}
@@ -0,0 +1,72 @@
+package tech.kood.kmdb.dto;
+
+import java.util.List;
+import java.util.Locale;
+
+// Combinable filters of GET /api/movies, bound from the query string:
+// ?genre=1,2&genreMatch=any|all &actor=3,4&actorMatch=any|all &year= or &yearFrom=&yearTo=
+// &minDuration=&maxDuration= &title=
+public record MovieFilter(
+        List<Long> genre, String genreMatch,
+        List<Long> actor, String actorMatch,
+        Integer year, Integer yearFrom, Integer yearTo,
+        Integer minDuration, Integer maxDuration,
+        String title) {
+
+    public static final int MAX_IDS = 50;
+
+    public MovieFilter {
+        genre = genre != null ? genre.stream().distinct().toList() : List.of();
+        actor = actor != null ? actor.stream().distinct().toList() : List.of();
+        genreMatch = genreMatch == null || genreMatch.isBlank() ? "any" : genreMatch.trim().toLowerCase(Locale.ROOT);
+        actorMatch = actorMatch == null || actorMatch.isBlank() ? "any" : actorMatch.trim().toLowerCase(Locale.ROOT);
+        title = title != null && !title.isBlank() ? title.trim() : null;
+    }
+
+    // 400 through the GlobalExceptionHandler (not thrown while binding, that would be a 500)
+    public void validate() {
+        if (!List.of("any", "all").contains(genreMatch) || !List.of("any", "all").contains(actorMatch)) {
+            throw new IllegalArgumentException("genreMatch and actorMatch must be 'any' or 'all'.");
+        }
+        if (genre.size() > MAX_IDS || actor.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " genre and " + MAX_IDS + " actor ids.");
+        }
+        if (year != null && (yearFrom != null || yearTo != null)) {
+            throw new IllegalArgumentException("Use either year or yearFrom/yearTo.");
+        }
+        if (yearFrom != null && yearTo != null && yearFrom > yearTo) {
+            throw new IllegalArgumentException("yearFrom must be <= yearTo.");
+        }
+        if (minDuration != null && maxDuration != null && minDuration > maxDuration) {
+            throw new IllegalArgumentException("minDuration must be <= maxDuration.");
+        }
+    }
+
+    public static MovieFilter none() {
+        return new MovieFilter(null, null, null, null, null, null, null, null, null, null);
+    }
+
+    public boolean allGenres() {
+        return "all".equals(genreMatch);
+    }
+
+    public boolean allActors() {
+        return "all".equals(actorMatch);
+    }
+
+    public Integer fromYear() {
+        return year != null ? year : yearFrom;
+    }
+
+    public Integer toYear() {
+        return year != null ? year : yearTo;
+    }
+
+    // Number of filter dimensions in use
+    public int dimensions() {
+        return (genre.isEmpty() ? 0 : 1) + (actor.isEmpty() ? 0 : 1)
+            + (fromYear() != null || toYear() != null ? 1 : 0)
+            + (minDuration != null || maxDuration != null ? 1 : 0)
+            + (title != null ? 1 : 0);
+    }
+}
@@ -0,0 +1,14 @@
+package tech.kood.kmdb.dto;
+
+import java.util.List;
+
+// One NDJSON line of POST /api/movies/import
+// { "title": "...", "releaseYear": 1999, "duration": 136, "genres": ["Action"], "actors": ["Keanu Reeves"] }
+// Genres and actors are referenced by name, missing ones are created
+public record MovieImportRow(
+    String title,
+    Integer releaseYear,
+    Integer duration,
+    List<String> genres,
+    List<String> actors
+) {}
@@ -0,0 +1,11 @@
+package tech.kood.kmdb.dto;
+
+import tech.kood.kmdb.model.Movie;
+
+// Movie as listed inside a genre or an actor (no genres/actors)
+public record MovieRef(Long id, String title, int releaseYear, int duration) {
+
+    public static MovieRef of(Movie movie) {
+        return new MovieRef(movie.getId(), movie.getTitle(), movie.getReleaseYear(), movie.getDuration());
+    }
+}
@@ -0,0 +1,35 @@
+package tech.kood.kmdb.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Result of a ?ids= lookup: the entities found, in the order their ids were requested, and the ids that don't exist
+public record MultiGet<T>(List<T> content, List<Long> missing) {
+
+    public static final int MAX_IDS = 200;
+
+    // The ids to look up (duplicates dropped, first one wins), 400 through the GlobalExceptionHandler if none or too many
+    public static List<Long> requested(List<Long> ids) {
+        List<Long> requested = ids == null ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (requested.isEmpty() || requested.size() > MAX_IDS) {
+            throw new IllegalArgumentException("ids must list between 1 and " + MAX_IDS + " ids.");
+        }
+        return requested;
+    }
+
+    public static <T> MultiGet<T> of(List<Long> requested, Map<Long, T> found) {
+        List<T> content = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            T entity = found.get(id);
+            if (entity != null) {
+                content.add(entity);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MultiGet<>(List.copyOf(content), List.copyOf(missing));
+    }
+}
@@ -0,0 +1,31 @@
+package tech.kood.kmdb.dto;
+
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+
+// Fingerprint of a read model: the entity's version plus the (id, version) of everything it embeds.
+// Embedded sets are hash sets, so their pairs are summed (order independent) after a 64-bit mix.
+final class Versions {
+
+    private Versions() {}
+
+    static long of(long version) {
+        return mix(version);
+    }
+
+    // salt tells the embedded kinds apart (genre 5 vs actor 5)
+    static <T> long embedded(Collection<T> entities, ToLongFunction<T> id, ToLongFunction<T> version, long salt) {
+        long sum = mix(salt);
+        for (T entity : entities) {
+            sum += mix(mix(id.applyAsLong(entity) ^ salt) + version.applyAsLong(entity));
+        }
+        return sum;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
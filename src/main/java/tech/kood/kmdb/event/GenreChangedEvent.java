@@ -0,0 +1,5 @@
+package tech.kood.kmdb.event;
+
+// Published inside the write transaction, listeners react after commit.
+// oldName is null for a created genre, newName is null for a deleted one.
+public record GenreChangedEvent(long genreId, String oldName, String newName) {}
@@ -0,0 +1,23 @@
+package tech.kood.kmdb.event;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import tech.kood.kmdb.model.Actor;
+import tech.kood.kmdb.model.Genre;
+import tech.kood.kmdb.model.Movie;
+
+// Published inside the write transaction, listeners react after commit.
+// before is null for a created movie, after is null for a deleted one.
+public record MovieChangedEvent(long movieId, State before, State after) {
+
+    // What listeners need to know about a movie: its year and its links (ids only)
+    public static record State(int releaseYear, Set<Long> genreIds, Set<Long> actorIds) {
+
+        public static State of(Movie movie) {
+            return new State(movie.getReleaseYear(),
+                movie.getGenres().stream().map(Genre::getId).collect(Collectors.toUnmodifiableSet()),
+                movie.getActors().stream().map(Actor::getId).collect(Collectors.toUnmodifiableSet()));
+        }
+    }
+}
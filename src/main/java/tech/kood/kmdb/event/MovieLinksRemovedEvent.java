@@ -0,0 +1,10 @@
+package tech.kood.kmdb.event;
+
+import java.util.List;
+
+// Published inside each chunk of an async force delete (DeleteJobService), listeners react after commit.
+// The genre/actor lost its links to these movies, the row itself goes later with its own change event.
+public record MovieLinksRemovedEvent(Target target, long targetId, List<Long> movieIds) {
+
+    public enum Target { GENRE, ACTOR }
+}
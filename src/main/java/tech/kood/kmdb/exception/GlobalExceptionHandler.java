@@ -5,10 +5,13 @@ import java.util.HashMap;
 import java.util.Map;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -73,5 +76,17 @@ public class GlobalExceptionHandler {
         String message = ex.getMessage();
         return ResponseEntity.status(status).body(baseError(status, message, req.getRequestURI()));
     }
+
+    // 503: write queue full (or shutting down), bulkhead full or no pooled connection in time: the client may retry
+    @ExceptionHandler({
+        RejectedExecutionException.class,
+        DataAccessResourceFailureException.class,
+        CannotCreateTransactionException.class
+    })
+    public ResponseEntity<Map<String, Object>> handleRejected(Exception ex, HttpServletRequest req) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).header("Retry-After", "1")
+        .body(baseError(status, ex.getMessage(), req.getRequestURI()));
+    }
     
 }
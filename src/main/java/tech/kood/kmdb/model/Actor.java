@@ -4,21 +4,36 @@ import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import jakarta.validation.constraints.*;
 
 // JPA entity with id (primary and autogenerated), name, ad birthDay.
 // Inverse side Many-to-Mayny relationship with Movie 
+// Second-level cached
+// Versioned: a name or birthDate change bumps version (movie links live on the Movie side)
 @Entity
+@Table(indexes = @Index(name = "idx_actor_name_id", columnList = "name, id")) // Keyset pagination
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "actor")
 public class Actor {
     private @Id @GeneratedValue Long id;
 
+    @Version
+    private long version;
+
     @NotBlank(message = "name must not be blank")
     @Size(max = 120, message = "name must be at most 120 characters")
     private String name;
@@ -30,6 +45,7 @@ public class Actor {
 
     @ManyToMany(mappedBy = "actors")
     @JsonIgnoreProperties({ "actors", "genres" })
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "actor-movies") // Evicted by CatalogCache, Hibernate only tracks the owner side
     Set<Movie> movies = new HashSet<>();
 
     public Actor() {}
@@ -42,6 +58,10 @@ public class Actor {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getName() {
         return name;
     }
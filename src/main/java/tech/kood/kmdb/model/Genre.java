@@ -3,20 +3,35 @@ package tech.kood.kmdb.model;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import jakarta.validation.constraints.*;
 
 // JPA entity with id (primary and autogenerated), and name.
 // Inverse side Many-to-Mayny relationship with Movie 
+// Second-level cached, genres almost never change
+// Versioned: a rename bumps version (movie links live on the Movie side)
 @Entity
+@Table(indexes = @Index(name = "idx_genre_name_id", columnList = "name, id")) // Keyset pagination
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "genre")
 public class Genre {
     private @Id @GeneratedValue Long id;
+
+    @Version
+    private long version;
     
     @NotBlank(message = "name must not be blank")
     @Size(max = 100, message = "name must be at most 100 characters")
@@ -26,6 +41,7 @@ public class Genre {
     
     @ManyToMany(mappedBy = "genres")
     @JsonIgnoreProperties({ "genres", "actors" })
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "genre-movies") // Evicted by CatalogCache, Hibernate only tracks the owner side
     private Set<Movie> movies = new HashSet<>();
 
     public Genre() {}
@@ -37,6 +53,10 @@ public class Genre {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getName() {
         return name;
     }
@@ -3,23 +3,45 @@ package tech.kood.kmdb.model;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import jakarta.validation.constraints.*;
 
 // JPA entity with id (primary and autogenerated), title, releaseYear, and duration.
 // Owner side Many-to-Mayny relationships with Genre and Actor. 
+// Second-level cached (entity + both collections)
+// Versioned: a title, year or duration change bumps version (ETags, lost updates fail instead of overwriting).
+// Link changes don't: the import links actors in a second flush and would update every new movie.
+// (sortKey, id) indexes for keyset pagination, they also serve the year filter; duration range filter
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_movie_title_id", columnList = "title, id"),
+    @Index(name = "idx_movie_release_year_id", columnList = "releaseYear, id"),
+    @Index(name = "idx_movie_duration", columnList = "duration")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "movie")
 public class Movie {
     private @Id @GeneratedValue Long id;
 
+    @Version
+    private long version;
+
     @NotBlank(message = "title must not be blank")
     @Size(max = 200, message = "title must be at most 200 characters")
     private String title;
@@ -40,9 +62,12 @@ public class Movie {
     @JoinTable(
         name = "movie-genres",
         joinColumns = @JoinColumn(name = "movie_id"),
-        inverseJoinColumns = @JoinColumn(name = "genre_id")
+        inverseJoinColumns = @JoinColumn(name = "genre_id"),
+        indexes = @Index(name = "idx_movie_genres_movie_id", columnList = "movie_id") // The PK leads with genre_id
     )
     @JsonIgnoreProperties("movies")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "movie-genres")
+    @OptimisticLock(excluded = true)
     private Set<Genre> genres = new HashSet<>();
 
     // Movie-Actor
@@ -50,9 +75,12 @@ public class Movie {
     @JoinTable(
         name = "movie-actors",
         joinColumns = @JoinColumn(name = "movie_id"),
-        inverseJoinColumns = @JoinColumn(name = "actor_id")
+        inverseJoinColumns = @JoinColumn(name = "actor_id"),
+        indexes = @Index(name = "idx_movie_actors_movie_id", columnList = "movie_id") // The PK leads with actor_id
     )
     @JsonIgnoreProperties("movies")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "movie-actors")
+    @OptimisticLock(excluded = true)
     private Set<Actor> actors = new HashSet<>();
 
     public Movie() {}
@@ -66,6 +94,10 @@ public class Movie {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getTitle() {
         return title;
     }
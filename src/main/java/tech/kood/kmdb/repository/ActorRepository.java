@@ -1,20 +1,67 @@
 package tech.kood.kmdb.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
 
 import tech.kood.kmdb.model.Actor;
 
 // Inherits CRUD helpers from JpaRepository to interact with the DB
-public interface ActorRepository extends JpaRepository<Actor, Long> {
+// Specifications for keyset scrolling
+// Unpaged lists fetch movies in the same query, pages rely on batch fetching
+public interface ActorRepository extends JpaRepository<Actor, Long>, JpaSpecificationExecutor<Actor> {
     
+    @Override
+    @EntityGraph(attributePaths = "movies")
+    List<Actor> findAll();
+
     // The name search
+    @EntityGraph(attributePaths = "movies")
     List<Actor> findByNameContainingIgnoreCase(String name);
     Page<Actor> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
+    // Same search restricted to the candidates of the trigram index (primary key lookups)
+    @EntityGraph(attributePaths = "movies")
+    List<Actor> findByIdInAndNameContainingIgnoreCase(Collection<Long> ids, String name);
+    Page<Actor> findByIdInAndNameContainingIgnoreCase(Collection<Long> ids, String name, Pageable pageable);
+
+    // ?ids= lookup
+    @EntityGraph(attributePaths = "movies")
+    List<Actor> findByIdIn(Collection<Long> ids);
+
     // Helper for GET /api/movies/{movieId}/actors - Avoids Lazy
     List<Actor> findByMovies_Id(Long movieId);
+
+    // Force delete: links counted and removed on the join table, no movie is loaded.
+    // The table is declared (quoted, as Hibernate renders it) as the query space: only the cached queries reading it are invalidated
+    // (undeclared, Hibernate would drop every region). CatalogCache evicts Movie.actors.
+    @Query(value = "select count(*) from \"movie-actors\" where actor_id = :actorId", nativeQuery = true)
+    long countMovieLinks(long actorId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "\"movie-actors\""))
+    @Query(value = "delete from \"movie-actors\" where actor_id = :actorId", nativeQuery = true)
+    int deleteMovieLinks(long actorId);
+
+    // One committed chunk of an async force delete: the linked movies (primary key lookups on the join table),
+    // then their links, so the chunk's event can name the movies that changed
+    @Query(value = "select movie_id from \"movie-actors\" where actor_id = :actorId limit :limit", nativeQuery = true)
+    List<Long> findLinkedMovieIds(long actorId, int limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "\"movie-actors\""))
+    @Query(value = "delete from \"movie-actors\" where actor_id = :actorId and movie_id in (:movieIds)", nativeQuery = true)
+    int deleteMovieLinks(long actorId, Collection<Long> movieIds);
 }
@@ -1,11 +1,54 @@
 package tech.kood.kmdb.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
 
 import tech.kood.kmdb.model.Genre;
 
 // Inherits CRUD helpers from JpaRepository to interact with the DB
-public interface GenreRepository extends JpaRepository<Genre, Long> {
+// Specifications for keyset scrolling
+// The unpaged list fetches movies in the same query, pages rely on batch fetching
+public interface GenreRepository extends JpaRepository<Genre, Long>, JpaSpecificationExecutor<Genre> {
     
+    @Override
+    @EntityGraph(attributePaths = "movies")
+    List<Genre> findAll();
+
+    // ?ids= lookup
+    @EntityGraph(attributePaths = "movies")
+    List<Genre> findByIdIn(Collection<Long> ids);
+
     boolean existsByNameIgnoreCase(String name);
+
+    // Force delete: links counted and removed on the join table, no movie is loaded.
+    // The table is declared (quoted, as Hibernate renders it) as the query space: only the cached queries reading it are invalidated
+    // (undeclared, Hibernate would drop every region). CatalogCache evicts Movie.genres.
+    @Query(value = "select count(*) from \"movie-genres\" where genre_id = :genreId", nativeQuery = true)
+    long countMovieLinks(long genreId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "\"movie-genres\""))
+    @Query(value = "delete from \"movie-genres\" where genre_id = :genreId", nativeQuery = true)
+    int deleteMovieLinks(long genreId);
+
+    // One committed chunk of an async force delete: the linked movies (primary key lookups on the join table),
+    // then their links, so the chunk's event can name the movies that changed
+    @Query(value = "select movie_id from \"movie-genres\" where genre_id = :genreId limit :limit", nativeQuery = true)
+    List<Long> findLinkedMovieIds(long genreId, int limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "\"movie-genres\""))
+    @Query(value = "delete from \"movie-genres\" where genre_id = :genreId and movie_id in (:movieIds)", nativeQuery = true)
+    int deleteMovieLinks(long genreId, Collection<Long> movieIds);
 }
@@ -1,28 +1,76 @@
 package tech.kood.kmdb.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
 
 import tech.kood.kmdb.model.Movie;
 
 // Inherits CRUD helpers from JpaRepository to interact with the DB
-// Filtering queries for genre/year/actor
-public interface MovieRepository extends JpaRepository<Movie, Long> {
+// Filtering queries for genre/year/actor (query cache: ids only, the movies come from the entity cache)
+// Specifications (MovieSpecifications) for keyset scrolling
+// Unpaged lists fetch-join genres only (two collections would return |genres| x |actors| rows per movie),
+// actors and the collections of pages come from batch fetching (default_batch_fetch_size movies per IN query)
+public interface MovieRepository extends JpaRepository<Movie, Long>, JpaSpecificationExecutor<Movie> {
+
+    String CACHEABLE = "org.hibernate.cacheable";
+
+    @Override
+    @EntityGraph(attributePaths = "genres")
+    List<Movie> findAll();
 
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @EntityGraph(attributePaths = "genres")
     List<Movie> findByGenres_Id(Long genreId);
 
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @EntityGraph(attributePaths = "genres")
     List<Movie> findByReleaseYear(int releaseYear);
 
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @EntityGraph(attributePaths = "genres")
     List<Movie> findByActors_Id(Long actorId);
 
+    // ?ids= lookup: the movies with their genres, actors batch fetched
+    @EntityGraph(attributePaths = "genres")
+    List<Movie> findByIdIn(Collection<Long> ids);
+
     // Paging
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
     Page<Movie> findByGenres_Id(Long genreId, Pageable pageable);
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
     Page<Movie> findByReleaseYear(int releaseYear, Pageable pageable);
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
     Page<Movie> findByActors_Id(Long actorId, Pageable pageable);
 
     // The title search
     Page<Movie> findByTitleContainingIgnoreCase(String title, Pageable pageable);
+
+    // Export: forward-only cursor over the whole catalog, read-only and bypassing the second-level cache
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select m from Movie m order by m.id")
+    Stream<Movie> streamAll();
+
+    // [movieId, genreId, name] and [movieId, actorId, name, birthDate] for one export chunk
+    @Query("select m.id, g.id, g.name from Movie m join m.genres g where m.id in :movieIds")
+    List<Object[]> findGenreRows(Collection<Long> movieIds);
+
+    @Query("select m.id, a.id, a.name, a.birthDate from Movie m join m.actors a where m.id in :movieIds")
+    List<Object[]> findActorRows(Collection<Long> movieIds);
 }
@@ -0,0 +1,121 @@
+package tech.kood.kmdb.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PostConstruct;
+
+// Full-text title search on a SQLite FTS5 index (movie_fts).
+// movie_fts is an external content table over movie(title): triggers keep it in sync
+// with every write (JPA, bulk import or plain SQL), results are ranked with bm25 unless the page has a sort.
+// The trigram tokenizer keeps the LIKE contract: the text is a case-insensitive substring ("atrix" finds
+// "The Matrix"). Trigrams need 3 characters, shorter text is left to LIKE.
+@Repository
+@DependsOn("entityManagerFactory") // The movie table must exist before the index and triggers
+public class MovieSearchRepository {
+
+    // Movie properties a search page can be sorted by (?sort=title,desc), and their columns
+    private static final Map<String, String> SORTABLE =
+            Map.of("id", "m.id", "title", "m.title", "releaseYear", "m.release_year", "duration", "m.duration");
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean available;
+
+    public MovieSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void createIndex() {
+        try {
+            // A file indexed by words (unicode61) before gets the trigram index, the rebuild below fills it
+            if (jdbcTemplate.queryForList("SELECT sql FROM sqlite_master WHERE name = 'movie_fts'", String.class)
+                    .stream().anyMatch(sql -> !sql.contains("trigram"))) {
+                jdbcTemplate.execute("DROP TABLE movie_fts");
+            }
+            jdbcTemplate.execute("""
+                CREATE VIRTUAL TABLE IF NOT EXISTS movie_fts USING fts5(
+                    title, content='movie', content_rowid='id', tokenize='trigram')""");
+            jdbcTemplate.execute("""
+                CREATE TRIGGER IF NOT EXISTS movie_fts_ai AFTER INSERT ON movie BEGIN
+                    INSERT INTO movie_fts(rowid, title) VALUES (new.id, new.title);
+                END""");
+            jdbcTemplate.execute("""
+                CREATE TRIGGER IF NOT EXISTS movie_fts_ad AFTER DELETE ON movie BEGIN
+                    INSERT INTO movie_fts(movie_fts, rowid, title) VALUES ('delete', old.id, old.title);
+                END""");
+            jdbcTemplate.execute("""
+                CREATE TRIGGER IF NOT EXISTS movie_fts_au AFTER UPDATE OF title ON movie BEGIN
+                    INSERT INTO movie_fts(movie_fts, rowid, title) VALUES ('delete', old.id, old.title);
+                    INSERT INTO movie_fts(rowid, title) VALUES (new.id, new.title);
+                END""");
+            // Rows written while the triggers didn't exist (or before a restart) are picked up here
+            jdbcTemplate.execute("INSERT INTO movie_fts(movie_fts) VALUES ('rebuild')");
+            available = true;
+        } catch (DataAccessException e) {
+            System.out.println(">>> FTS: full-text index unavailable, title search falls back to LIKE. Cause: " + e.getMessage());
+            available = false;
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    // Movie ids for the page, best match first or in the page's sort. Empty if FTS is unavailable or the text is
+    // shorter than a trigram. An unknown sort property is a 400 on either path.
+    public Optional<Page<Long>> searchTitleIds(String text, Pageable pageable) {
+        String orderBy = orderBy(pageable.getSort());
+        String match = toMatchExpression(text);
+        if (!available || match == null) {
+            return Optional.empty();
+        }
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM movie_fts WHERE movie_fts MATCH ?", Long.class, match);
+        List<Long> ids = orderBy == null
+                ? jdbcTemplate.queryForList("""
+                    SELECT rowid FROM movie_fts WHERE movie_fts MATCH ?
+                    ORDER BY bm25(movie_fts), rowid LIMIT ? OFFSET ?""",
+                    Long.class, match, pageable.getPageSize(), pageable.getOffset())
+                : jdbcTemplate.queryForList("""
+                    SELECT m.id FROM movie_fts JOIN movie m ON m.id = movie_fts.rowid WHERE movie_fts MATCH ?
+                    ORDER BY %s, m.id LIMIT ? OFFSET ?""".formatted(orderBy),
+                    Long.class, match, pageable.getPageSize(), pageable.getOffset());
+        return Optional.of(new PageImpl<>(ids, pageable, total != null ? total : 0));
+    }
+
+    // User text -> FTS5 MATCH expression: the whole text as one quoted string, a substring for the trigram tokenizer.
+    // Quoting leaves no FTS5 operators to the user.
+    static String toMatchExpression(String text) {
+        if (text == null || text.codePointCount(0, text.length()) < 3) {
+            return null;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+
+    // null when unsorted (relevance order)
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return null;
+        }
+        return sort.stream().map(order -> {
+            String column = SORTABLE.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Cannot sort search results by '" + order.getProperty()
+                        + "', use id, title, releaseYear or duration.");
+            }
+            return (order.isIgnoreCase() ? "lower(" + column + ")" : column) + (order.isAscending() ? " ASC" : " DESC");
+        }).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,79 @@
+package tech.kood.kmdb.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import tech.kood.kmdb.dto.MovieFilter;
+import tech.kood.kmdb.model.Movie;
+
+// Criteria building blocks for MovieRepository.findBy(Specification, ...)
+// Every filter becomes one indexed predicate of a single query:
+// genres/actors -> movie.id IN (join table rows for the ids), one IN per id for "all" (PK index of the join table),
+// year and duration -> range on (release_year, id) and (duration), title -> LIKE on what is left.
+public final class MovieSpecifications {
+
+    private MovieSpecifications() {}
+
+    public static Specification<Movie> all() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+
+    public static Specification<Movie> matching(MovieFilter filter) {
+        Specification<Movie> spec = all();
+        if (!filter.genre().isEmpty()) {
+            spec = spec.and(linkedTo("genres", filter.genre(), filter.allGenres()));
+        }
+        if (!filter.actor().isEmpty()) {
+            spec = spec.and(linkedTo("actors", filter.actor(), filter.allActors()));
+        }
+        if (filter.fromYear() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("releaseYear"), filter.fromYear()));
+        }
+        if (filter.toYear() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("releaseYear"), filter.toYear()));
+        }
+        if (filter.minDuration() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("duration"), filter.minDuration()));
+        }
+        if (filter.maxDuration() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("duration"), filter.maxDuration()));
+        }
+        if (filter.title() != null) {
+            spec = spec.and(titleContains(filter.title()));
+        }
+        return spec;
+    }
+
+    // Linked to any of the ids, or to all of them (one IN per id, intersected by the AND)
+    static Specification<Movie> linkedTo(String collection, List<Long> ids, boolean all) {
+        if (!all || ids.size() == 1) {
+            return idIn(collection, ids);
+        }
+        Specification<Movie> spec = all();
+        for (Long id : ids) {
+            spec = spec.and(idIn(collection, List.of(id)));
+        }
+        return spec;
+    }
+
+    // movie.id IN (SELECT movie_id FROM "movie-<collection>" WHERE <collection>_id IN (:ids))
+    private static Specification<Movie> idIn(String collection, Collection<Long> ids) {
+        return (root, query, cb) -> {
+            Subquery<Long> linked = query.subquery(Long.class);
+            Root<Movie> movie = linked.from(Movie.class);
+            linked.select(movie.get("id")).where(movie.join(collection).get("id").in(ids));
+            return root.get("id").in(linked);
+        };
+    }
+
+    private static Specification<Movie> titleContains(String text) {
+        String pattern = "%" + text.toLowerCase(Locale.ROOT)
+            .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("title")), pattern, '\\');
+    }
+}
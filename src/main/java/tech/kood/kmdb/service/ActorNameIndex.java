@@ -0,0 +1,237 @@
+package tech.kood.kmdb.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.LongStream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import tech.kood.kmdb.event.ActorChangedEvent;
+
+// In-memory trigram inverted index over actor names, for the ?name= substring search.
+// Every 3-character window of the lowercased name points to a posting list of actor ids
+// (sorted ints, delta + varint encoded). A query intersects the lists of its trigrams and
+// returns candidate ids; the caller still checks the real substring match in SQL.
+// Built when the app is ready, then kept up to date from ActorChangedEvent after each commit.
+@Component
+public class ActorNameIndex {
+
+    public static final int MAX_CANDIDATES = 10_000; // Above this a plain scan is as good (and fits the SQL IN limit)
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public ActorNameIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true) // Reader pool
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            long[] count = { 0 };
+            jdbcTemplate.query("select id, name from actor order by id", rs -> {
+                add(rs.getLong(1), rs.getString(2));
+                count[0]++;
+            });
+            ready = true;
+            System.out.println(">>> ACTOR INDEX: " + count[0] + " names, " + postings.size() + " trigrams in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onActorChanged(ActorChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.oldName() != null) {
+                remove(event.actorId(), event.oldName());
+            }
+            if (event.newName() != null) {
+                add(event.actorId(), event.newName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids that may contain `query` (superset), sorted. Empty Optional = the index can't help, scan instead.
+    public Optional<List<Long>> candidates(String query) {
+        long[] keys = trigrams(query);
+        if (!ready || keys.length == 0) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                lists[i] = postings.get(keys[i]);
+                if (lists[i] == null) {
+                    return Optional.of(List.of()); // A trigram nobody has
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(p -> p.count));
+            if (lists[0].count > MAX_CANDIDATES) {
+                return Optional.empty();
+            }
+            int[] result = lists[0].toArray();
+            for (int i = 1; i < lists.length && result.length > 0; i++) {
+                result = lists[i].retainAll(result);
+            }
+            return Optional.of(Arrays.stream(result).asLongStream().boxed().toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(long id, String name) {
+        for (long key : trigrams(name)) {
+            postings.computeIfAbsent(key, k -> new Postings()).add(toInt(id));
+        }
+    }
+
+    private void remove(long id, String name) {
+        for (long key : trigrams(name)) {
+            Postings list = postings.get(key);
+            if (list != null && list.remove(toInt(id)) && list.count == 0) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static int toInt(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Actor id " + id + " does not fit the name index");
+        }
+        return (int) id;
+    }
+
+    // Distinct trigrams of the lowercased text, 3 UTF-16 chars packed in a long
+    static long[] trigrams(String text) {
+        if (text == null || text.length() < 3) {
+            return new long[0];
+        }
+        String s = text.toLowerCase(Locale.ROOT);
+        return LongStream.range(0, s.length() - 2)
+                .map(i -> ((long) s.charAt((int) i) << 32) | ((long) s.charAt((int) i + 1) << 16) | s.charAt((int) i + 2))
+                .distinct()
+                .toArray();
+    }
+
+    // Sorted, duplicate-free int ids stored as varint deltas. Appends (new, higher ids) are cheap,
+    // inserts/removes in the middle re-encode the list.
+    static final class Postings {
+        private byte[] data = new byte[4];
+        private int length;
+        private int count;
+        private int last;
+
+        void add(int id) {
+            if (count == 0 || id > last) {
+                append(id);
+                return;
+            }
+            int[] ids = toArray();
+            int pos = Arrays.binarySearch(ids, id);
+            if (pos >= 0) {
+                return;
+            }
+            int at = -pos - 1;
+            int[] next = new int[ids.length + 1];
+            System.arraycopy(ids, 0, next, 0, at);
+            next[at] = id;
+            System.arraycopy(ids, at, next, at + 1, ids.length - at);
+            encode(next, next.length);
+        }
+
+        boolean remove(int id) {
+            int[] ids = toArray();
+            int pos = Arrays.binarySearch(ids, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, ids.length - pos - 1);
+            encode(ids, ids.length - 1);
+            return true;
+        }
+
+        int[] toArray() {
+            int[] ids = new int[count];
+            int value = 0;
+            int p = 0;
+            for (int i = 0; i < count; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[p++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                value += delta;
+                ids[i] = value;
+            }
+            return ids;
+        }
+
+        // Intersection with a sorted array
+        int[] retainAll(int[] other) {
+            int[] mine = toArray();
+            int[] out = new int[Math.min(mine.length, other.length)];
+            int n = 0;
+            for (int i = 0, j = 0; i < mine.length && j < other.length; ) {
+                if (mine[i] < other[j]) {
+                    i++;
+                } else if (mine[i] > other[j]) {
+                    j++;
+                } else {
+                    out[n++] = mine[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+
+        private void encode(int[] ids, int n) {
+            data = new byte[Math.max(4, n * 2)];
+            length = 0;
+            count = 0;
+            for (int i = 0; i < n; i++) {
+                append(ids[i]);
+            }
+        }
+
+        private void append(int id) {
+            int delta = count == 0 ? id : id - last;
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            last = id;
+            count++;
+        }
+    }
+}
@@ -1,13 +1,31 @@
 package tech.kood.kmdb.service;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.annotation.Timed;
+
+import tech.kood.kmdb.dto.ActorDTO;
+import tech.kood.kmdb.dto.CursorPage;
+import tech.kood.kmdb.dto.Fields;
+import tech.kood.kmdb.dto.MovieDTO;
+import tech.kood.kmdb.dto.MultiGet;
+import tech.kood.kmdb.event.ActorChangedEvent;
 import tech.kood.kmdb.exception.ResourceNotFoundException;
 import tech.kood.kmdb.model.Actor;
 import tech.kood.kmdb.model.Movie;
@@ -19,17 +37,28 @@ import jakarta.validation.constraints.NotNull;
 
 
 // Business logic: CRUD and handle relationships
-// Extra: Pagination
+// Extra: Pagination (offset or keyset)
+// Extra: Name search through the in-memory trigram index
+// Reads return DTOs mapped inside the transaction, identical concurrent reads run once (@Coalesced)
+// A sparse read (Fields without movies) runs the finders without the movies fetch join
+@Timed("kmdb.service")
 @Service
 public class ActorService {
 
+    private static final Map<String, Class<?>> SORTABLE = Map.of("id", Long.class, "name", String.class);
+
     private final ActorRepository actorRepository;
-    private final MovieRepository movieRepository; // To update owning side on force delete
+    private final MovieRepository movieRepository; // Movies of an actor
+    private final ActorNameIndex actorNameIndex;
+    private final ApplicationEventPublisher events; // Keeps the name index in sync after commit
 
     // Spring will inject the repository
-    public ActorService(ActorRepository actorRepository, MovieRepository movieRepository) {
+    public ActorService(ActorRepository actorRepository, MovieRepository movieRepository,
+            ActorNameIndex actorNameIndex, ApplicationEventPublisher events) {
         this.actorRepository = actorRepository;
         this.movieRepository = movieRepository;
+        this.actorNameIndex = actorNameIndex;
+        this.events = events;
     }
 
     // CRUD
@@ -37,67 +66,131 @@ public class ActorService {
     @SuppressWarnings("null")
     @Transactional
     public Actor create(Actor actor) {
-        return Objects.requireNonNull(actorRepository.save(actor));
+        Actor entity = new Actor(actor.getName(), actor.getBirthDate()); // Copy: the write queue may run the write again
+        entity.setMovies(actor.getMovies());
+        Actor saved = Objects.requireNonNull(actorRepository.save(entity));
+        events.publishEvent(new ActorChangedEvent(saved.getId(), null, saved.getName()));
+        return saved;
     }
 
     @Transactional(readOnly = true)
-    public List<Actor> findAll() {
-        return actorRepository.findAll();
+    @Coalesced
+    public List<ActorDTO> findAll(Fields fields) {
+        List<Actor> actors = fields.has("movies")
+                ? actorRepository.findAll()
+                : actorRepository.findAll(Pageable.unpaged()).getContent(); // Same rows without the movies fetch join
+        return actors.stream().map(actor -> ActorDTO.of(actor, fields)).toList();
     }
 
     @SuppressWarnings("null")
     @Transactional(readOnly = true)
-    public Page<Actor> findAll(@NotNull Pageable pageable) {
-        return actorRepository.findAll(pageable); 
+    @Coalesced
+    public Page<ActorDTO> findAll(@NotNull Pageable pageable, Fields fields) {
+        return actorRepository.findAll(pageable).map(actor -> ActorDTO.of(actor, fields));
     }
 
     @Transactional(readOnly = true)
-    public Optional<Actor> findbyId(long id) { // Return Optional instead of null if not found
-        return actorRepository.findById(id);
+    @Coalesced
+    public Optional<ActorDTO> findbyId(long id, Fields fields) { // Return Optional instead of null if not found
+        return actorRepository.findById(id).map(actor -> ActorDTO.of(actor, fields));
+    }
+
+    // ?ids=: one query for the actors with their movies (if shown), request order kept
+    @Transactional(readOnly = true)
+    @Coalesced
+    public MultiGet<ActorDTO> findAllById(List<Long> ids, Fields fields) {
+        List<Long> requested = MultiGet.requested(ids);
+        List<Actor> actors = fields.has("movies")
+                ? actorRepository.findByIdIn(requested)
+                : actorRepository.findAllById(requested);
+        return MultiGet.of(requested, actors.stream()
+                .map(actor -> ActorDTO.of(actor, fields)).collect(Collectors.toMap(ActorDTO::id, Function.identity())));
     }
 
     @Transactional
     public void delete(long id) {
-        actorRepository.deleteById(id);
+        actorRepository.findById(id).ifPresent(actor -> {
+            actorRepository.delete(actor);
+            events.publishEvent(new ActorChangedEvent(id, actor.getName(), null));
+        });
     }
 
-    // Force delete
+    // Force delete: the links go with one set-based DELETE on the join table, no movie is loaded
     @Transactional
     public void delete(long id, boolean force) {
         Actor actor = actorRepository.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("Actor " + id + " not found"));
 
-        int related = actor.getMovies().size();
+        long related = actorRepository.countMovieLinks(id);
         if (!force && related > 0) {
             String name = actor.getName();
             throw new IllegalArgumentException("Cannot delete actor '" + name + "' because it has " + related + " associated movies."); // 400 The GlobalException handler maps IllegalArgumentException
         }
 
-        if (force) { // Detach from owning side and make a copy to avoid concurrent modification
-            for (Movie m : List.copyOf(actor.getMovies())) {
-                m.getActors().remove(actor); // Remove the link
-                movieRepository.save(m); // Persist change in the join table.
-            }
+        if (related > 0) { // Also evicts the affected caches and clears the persistence context
+            actorRepository.deleteMovieLinks(id);
         }
 
-        actorRepository.delete(actor);
+        actorRepository.deleteById(id); // By id: after the bulk delete the loaded instance is detached
+        events.publishEvent(new ActorChangedEvent(id, actor.getName(), null));
     }
 
+    // Index candidates -> one batched fetch that also checks the real match; full scan if the index can't help
     @Transactional(readOnly = true)
-    public List<Actor> findByNameContainingIgnoreCase(String name) {
-        return actorRepository.findByNameContainingIgnoreCase(name);
+    @Coalesced
+    public List<ActorDTO> findByNameContainingIgnoreCase(String name, Fields fields) {
+        if (!fields.has("movies")) { // The paged finders, unpaged: no movies fetch join
+            return findByNameContainingIgnoreCase(name, Pageable.unpaged(), fields).getContent();
+        }
+        return actorNameIndex.candidates(name)
+        .map(ids -> ids.isEmpty() ? List.<Actor>of() : actorRepository.findByIdInAndNameContainingIgnoreCase(ids, name))
+        .orElseGet(() -> actorRepository.findByNameContainingIgnoreCase(name))
+        .stream().map(actor -> ActorDTO.of(actor, fields)).toList();
+    }
+
+    @Transactional(readOnly = true)
+    @Coalesced
+    public Page<ActorDTO> findByNameContainingIgnoreCase(String name, Pageable pageable, Fields fields) {
+        return actorNameIndex.candidates(name)
+        .map(ids -> ids.isEmpty() ? Page.<Actor>empty(pageable) : actorRepository.findByIdInAndNameContainingIgnoreCase(ids, name, pageable))
+        .orElseGet(() -> actorRepository.findByNameContainingIgnoreCase(name, pageable))
+        .map(actor -> ActorDTO.of(actor, fields));
     }
 
+    // Keyset window, optionally filtered by name (restricted to the index candidates when it can help)
     @Transactional(readOnly = true)
-    public Page<Actor> findByNameContainingIgnoreCase(String name, Pageable pageable) {
-        return actorRepository.findByNameContainingIgnoreCase(name, pageable);
+    @Coalesced
+    public CursorPage<ActorDTO> scroll(String name, String sortKey, String after, int size, Fields fields) {
+        Specification<Actor> spec = (root, query, cb) -> cb.conjunction();
+        if (name != null && !name.isBlank()) {
+            Optional<List<Long>> candidates = actorNameIndex.candidates(name);
+            if (candidates.isPresent() && candidates.get().isEmpty()) {
+                return new CursorPage<>(List.of(), size, null);
+            }
+            String pattern = "%" + name.toLowerCase(Locale.ROOT) + "%";
+            spec = (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern);
+            if (candidates.isPresent()) {
+                List<Long> ids = candidates.get();
+                spec = spec.and((root, query, cb) -> root.get("id").in(ids));
+            }
+        }
+        Sort sort = CursorCodec.sort(sortKey, SORTABLE);
+        KeysetScrollPosition position = CursorCodec.decode(after, sort, SORTABLE);
+        Window<Actor> window = actorRepository.findBy(CursorCodec.seek(spec, position, sort),
+                q -> q.sortBy(sort).limit(size).scroll(position));
+        return new CursorPage<>(window.map(actor -> ActorDTO.of(actor, fields)).getContent(), size, CursorCodec.next(window));
     }
 
     @Transactional(readOnly = true)
-    public List<Movie> getMoviesForActor(long actorId) {
-        return actorRepository.findById(actorId)
-                .map(actor -> actor.getMovies().stream().toList())
-                .orElse(List.of()); // Empty if actor not found
+    @Coalesced
+    public List<MovieDTO> getMoviesForActor(long actorId, Fields fields) {
+        List<Movie> movies = fields.hasAll(MovieDTO.COLLECTIONS)
+                ? movieRepository.findByActors_Id(actorId)
+                : movieRepository.findByActors_Id(actorId, Pageable.unpaged()).getContent(); // No fetch joins
+        return movies.stream() // Empty if actor not found
+                .map(movie -> MovieDTO.of(movie, fields))
+                .sorted(Comparator.comparing(MovieDTO::id))
+                .toList();
     }
 
     @SuppressWarnings("null")
@@ -107,6 +200,7 @@ public class ActorService {
         .map(actor -> {
             // Update only if non-null
             if (updatedActor.getName() != null && !updatedActor.getName().isBlank()) {
+                events.publishEvent(new ActorChangedEvent(id, actor.getName(), updatedActor.getName()));
                 actor.setName(updatedActor.getName());
             }
             if (updatedActor.getBirthDate() != null) {
@@ -0,0 +1,165 @@
+package tech.kood.kmdb.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.persistence.EntityManagerFactory;
+import tech.kood.kmdb.event.ActorChangedEvent;
+import tech.kood.kmdb.event.GenreChangedEvent;
+import tech.kood.kmdb.event.MovieChangedEvent;
+import tech.kood.kmdb.event.MovieLinksRemovedEvent;
+import tech.kood.kmdb.model.Actor;
+import tech.kood.kmdb.model.Genre;
+import tech.kood.kmdb.model.Movie;
+
+// Second-level cache housekeeping and statistics.
+// Hibernate keeps entity and owner-side collection entries (Movie.genres/actors) in sync by itself,
+// but not the inverse sides: Genre.movies and Actor.movies are evicted here when a movie's links change.
+// A genre/actor delete removes its links with one bulk statement, the owner-side regions are evicted whole.
+// An async delete chunk names its movies: their owner-side collections and the target's movies go.
+@Component
+public class CatalogCache {
+
+    private static final String GENRE_MOVIES = Genre.class.getName() + ".movies";
+    private static final String ACTOR_MOVIES = Actor.class.getName() + ".movies";
+    private static final String MOVIE_GENRES = Movie.class.getName() + ".genres";
+    private static final String MOVIE_ACTORS = Movie.class.getName() + ".actors";
+
+    private final Cache cache;
+    private final Statistics statistics;
+
+    public CatalogCache(EntityManagerFactory entityManagerFactory) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.cache = sessionFactory.getCache();
+        this.statistics = sessionFactory.getStatistics();
+    }
+
+    // Evicted before commit and again after, so a concurrent load can't put back the old list
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void beforeMovieCommit(MovieChangedEvent event) {
+        evictInverseCollections(event);
+    }
+
+    @TransactionalEventListener
+    public void afterMovieCommit(MovieChangedEvent event) {
+        evictInverseCollections(event);
+    }
+
+    // Deleted (newName null): the movies that lost the link aren't known without loading them
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void beforeGenreCommit(GenreChangedEvent event) {
+        if (event.newName() == null) {
+            cache.evictCollectionData(MOVIE_GENRES);
+        }
+    }
+
+    @TransactionalEventListener
+    public void afterGenreCommit(GenreChangedEvent event) {
+        beforeGenreCommit(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void beforeActorCommit(ActorChangedEvent event) {
+        if (event.newName() == null) {
+            cache.evictCollectionData(MOVIE_ACTORS);
+        }
+    }
+
+    @TransactionalEventListener
+    public void afterActorCommit(ActorChangedEvent event) {
+        beforeActorCommit(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void beforeLinksRemovedCommit(MovieLinksRemovedEvent event) {
+        boolean genre = event.target() == MovieLinksRemovedEvent.Target.GENRE;
+        cache.evictCollectionData(genre ? GENRE_MOVIES : ACTOR_MOVIES, event.targetId());
+        event.movieIds().forEach(id -> cache.evictCollectionData(genre ? MOVIE_GENRES : MOVIE_ACTORS, id));
+    }
+
+    @TransactionalEventListener
+    public void afterLinksRemovedCommit(MovieLinksRemovedEvent event) {
+        beforeLinksRemovedCommit(event);
+    }
+
+    private void evictInverseCollections(MovieChangedEvent event) {
+        for (MovieChangedEvent.State state : new MovieChangedEvent.State[] { event.before(), event.after() }) {
+            if (state != null) {
+                state.genreIds().forEach(id -> cache.evictCollectionData(GENRE_MOVIES, id));
+                state.actorIds().forEach(id -> cache.evictCollectionData(ACTOR_MOVIES, id));
+            }
+        }
+    }
+
+    public void evictAll() {
+        cache.evictAllRegions();
+    }
+
+    // Share of second-level cache lookups that hit, 0 before the first lookup
+    public double secondLevelHitRatio() {
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long lookups = hits + statistics.getSecondLevelCacheMissCount();
+        return lookups > 0 ? (double) hits / lookups : 0.0;
+    }
+
+    // Totals from Hibernate + hits/misses/puts per region, evictions from the Caffeine JCache MXBeans
+    public Map<String, Object> stats() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("secondLevel", Map.of(
+            "hits", statistics.getSecondLevelCacheHitCount(),
+            "misses", statistics.getSecondLevelCacheMissCount(),
+            "puts", statistics.getSecondLevelCachePutCount()));
+        body.put("queryCache", Map.of(
+            "hits", statistics.getQueryCacheHitCount(),
+            "misses", statistics.getQueryCacheMissCount(),
+            "puts", statistics.getQueryCachePutCount()));
+
+        Map<String, Long> evictions = evictionsByRegion();
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics r = statistics.getCacheRegionStatistics(region);
+            if (r == null) {
+                continue;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("hits", r.getHitCount());
+            row.put("misses", r.getMissCount());
+            row.put("puts", r.getPutCount());
+            row.put("evictions", evictions.getOrDefault(region, 0L));
+            if (r.getElementCountInMemory() >= 0) { // Negative = not reported by the provider
+                row.put("size", r.getElementCountInMemory());
+            }
+            regions.put(region, row);
+        }
+        body.put("regions", regions);
+        return body;
+    }
+
+    private static Map<String, Long> evictionsByRegion() {
+        Map<String, Long> evictions = new LinkedHashMap<>();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            Set<ObjectName> names = server.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null);
+            for (ObjectName name : names) {
+                evictions.merge(name.getKeyProperty("Cache"), (Long) server.getAttribute(name, "CacheEvictions"), Long::sum);
+            }
+        } catch (JMException e) {
+            // Stats are best effort, the regions table just shows 0
+        }
+        return evictions;
+    }
+}
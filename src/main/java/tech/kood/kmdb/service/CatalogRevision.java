@@ -0,0 +1,74 @@
+package tech.kood.kmdb.service;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import tech.kood.kmdb.event.ActorChangedEvent;
+import tech.kood.kmdb.event.GenreChangedEvent;
+import tech.kood.kmdb.event.MovieChangedEvent;
+import tech.kood.kmdb.event.MovieLinksRemovedEvent;
+import tech.kood.kmdb.service.ResponseCache.Kind;
+
+// Global catalog revision: +1 after every committed movie, actor or genre change (async delete chunks included),
+// and the revision each kind last changed at. List ETags are built from the kinds a list shows, a poll is
+// answered 304 without a query.
+// The boot time is part of every ETag: the database is recreated on start, ids and versions start over.
+// Read the ETag before loading the list: a load that sees a commit before its revision is out gets the older
+// tag, so the next poll fetches it again instead of keeping old rows under a new tag.
+@Component
+public class CatalogRevision {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong revision = new AtomicLong();
+    private final Map<Kind, AtomicLong> changedAt = Map.of(
+            Kind.MOVIE, new AtomicLong(), Kind.ACTOR, new AtomicLong(), Kind.GENRE, new AtomicLong());
+
+    @TransactionalEventListener
+    public void afterMovieCommit(MovieChangedEvent event) {
+        changed(Kind.MOVIE);
+    }
+
+    @TransactionalEventListener
+    public void afterActorCommit(ActorChangedEvent event) {
+        changed(Kind.ACTOR);
+    }
+
+    @TransactionalEventListener
+    public void afterGenreCommit(GenreChangedEvent event) {
+        changed(Kind.GENRE);
+    }
+
+    // Both sides of the removed links show them: the genre/actor's movies, the movies' genres/actors
+    @TransactionalEventListener
+    public void afterLinksRemoved(MovieLinksRemovedEvent event) {
+        changed(event.target() == MovieLinksRemovedEvent.Target.GENRE ? Kind.GENRE : Kind.ACTOR, Kind.MOVIE);
+    }
+
+    private void changed(Kind... kinds) {
+        long at = revision.incrementAndGet();
+        for (Kind kind : kinds) {
+            changedAt.get(kind).accumulateAndGet(at, Math::max);
+        }
+    }
+
+    public long current() {
+        return revision.get();
+    }
+
+    // Strong ETag of a list that shows the given kinds, e.g. etag("genres", GENRE, MOVIE)
+    public String etag(String list, Kind... shown) {
+        long at = 0;
+        for (Kind kind : shown) {
+            at = Math.max(at, changedAt.get(kind).get());
+        }
+        return "\"" + epoch + "-" + list + "-r" + at + "\"";
+    }
+
+    // Strong ETag of one entity's JSON, from its read model version
+    public String etag(Kind kind, long id, long version) {
+        return "\"" + epoch + "-" + kind.name().toLowerCase() + id + "-" + Long.toUnsignedString(version, 36) + "\"";
+    }
+}
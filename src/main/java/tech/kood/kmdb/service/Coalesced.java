@@ -0,0 +1,18 @@
+package tech.kood.kmdb.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Read method whose concurrent calls with equal arguments share one load (ReadCoalescing).
+// The result is handed to every caller: it must be immutable (DTOs, pages of DTOs).
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Coalesced {
+
+    // How long a shared load may be waited for, -1: kmdb.coalesce.timeout-ms
+    long timeoutMs() default -1;
+}
@@ -0,0 +1,97 @@
+package tech.kood.kmdb.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Opaque ?after= tokens for keyset pagination: the (sortKey, id) values of the last row, as base64url JSON.
+// An empty token means "from the start".
+final class CursorCodec {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private CursorCodec() {}
+
+    // Seek order: the sort key (if not id) then id as tie-breaker, both ascending
+    static Sort sort(String sortKey, Map<String, Class<?>> sortable) {
+        if (!sortable.containsKey(sortKey)) {
+            throw new IllegalArgumentException("Invalid sort: must be one of " + new TreeSet<>(sortable.keySet()) + ".");
+        }
+        return "id".equals(sortKey) ? Sort.by("id") : Sort.by(sortKey, "id");
+    }
+
+    static KeysetScrollPosition decode(String token, Sort sort, Map<String, Class<?>> sortable) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> raw;
+        try {
+            raw = JSON.readValue(Base64.getUrlDecoder().decode(token), new TypeReference<Map<String, Object>>() {});
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        List<String> expected = sort.stream().map(Sort.Order::getProperty).toList();
+        if (!raw.keySet().equals(Set.copyOf(expected))) {
+            throw new IllegalArgumentException("Cursor does not match sort '" + expected.get(0) + "'.");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (String property : expected) {
+            keys.put(property, coerce(raw.get(property), sortable.get(property)));
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    // Spring Data renders the keyset as "k > ? OR (k = ? AND id > ?)", which SQLite can't seek on.
+    // The redundant "k >= ?" gives it the start of the index range, so deep windows cost the same as the first.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <T> Specification<T> seek(Specification<T> spec, KeysetScrollPosition position, Sort sort) {
+        String sortKey = sort.iterator().next().getProperty();
+        if (position.isInitial() || "id".equals(sortKey)) {
+            return spec;
+        }
+        Comparable value = (Comparable) position.getKeys().get(sortKey);
+        return spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get(sortKey), value));
+    }
+
+    static String next(Window<?> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(JSON.writeValueAsBytes(last.getKeys()));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    // JSON numbers come back as Integer/Long; the query needs the property's own type
+    private static Object coerce(Object value, Class<?> type) {
+        if (value == null) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        if (type == Long.class && value instanceof Number n) {
+            return n.longValue();
+        }
+        if (type == Integer.class && value instanceof Number n) {
+            return n.intValue();
+        }
+        if (type.isInstance(value)) {
+            return value;
+        }
+        throw new IllegalArgumentException("Invalid cursor.");
+    }
+}
@@ -0,0 +1,268 @@
+package tech.kood.kmdb.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.annotation.Timed;
+
+import jakarta.annotation.PreDestroy;
+import tech.kood.kmdb.dto.JobStatus;
+import tech.kood.kmdb.event.MovieLinksRemovedEvent;
+import tech.kood.kmdb.event.MovieLinksRemovedEvent.Target;
+import tech.kood.kmdb.exception.ResourceNotFoundException;
+import tech.kood.kmdb.repository.ActorRepository;
+import tech.kood.kmdb.repository.GenreRepository;
+import tech.kood.kmdb.repository.MovieRepository;
+
+// Asynchronous force deletes (?force=true&async=true).
+// Jobs run one at a time on a background thread: the join rows go in small chunks, each in its own
+// transaction, with a pause in between so other writers get SQLite's write lock. A step that finds the
+// database locked is retried with backoff. Each chunk publishes the movies it unlinked (MovieLinksRemovedEvent):
+// ETags, cached responses, collections and the facet index follow the job chunk by chunk. The last step is the
+// regular delete(id, true): it removes links added meanwhile, deletes the row and publishes the change event.
+// Jobs live in memory (the last MAX_FINISHED finished ones are kept), a restart forgets them.
+@Service
+public class DeleteJobService {
+
+    private static final int MAX_FINISHED = 100;
+    private static final int MAX_ATTEMPTS = 10;
+
+    private final GenreService genreService;
+    private final ActorService actorService;
+    private final MovieService movieService;
+    private final GenreRepository genreRepository;
+    private final ActorRepository actorRepository;
+    private final MovieRepository movieRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events; // One event per committed chunk
+    private final int chunkSize;
+    private final long pauseMs;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "delete-jobs"));
+    private final Map<String, Job> jobs = new LinkedHashMap<>(); // Guarded by itself, oldest first
+    private final AtomicLong busyRetries = new AtomicLong(); // All jobs, forgotten ones included
+
+    public DeleteJobService(GenreService genreService, ActorService actorService, MovieService movieService,
+            GenreRepository genreRepository, ActorRepository actorRepository, MovieRepository movieRepository,
+            PlatformTransactionManager transactionManager, ApplicationEventPublisher events,
+            @Value("${kmdb.delete.chunk-size:1000}") int chunkSize,
+            @Value("${kmdb.delete.pause-ms:10}") long pauseMs) {
+        this.genreService = genreService;
+        this.actorService = actorService;
+        this.movieService = movieService;
+        this.genreRepository = genreRepository;
+        this.actorRepository = actorRepository;
+        this.movieRepository = movieRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+    }
+
+    // 404 right away if the genre doesn't exist, everything else happens in the job
+    @Timed("kmdb.service")
+    public JobStatus deleteGenre(long id, boolean force) {
+        requireForce(force);
+        if (!genreRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Genre " + id + " not found");
+        }
+        return submit("genre", id, genreRepository.countMovieLinks(id),
+                () -> unlink(Target.GENRE, id, genreRepository.findLinkedMovieIds(id, chunkSize),
+                        movieIds -> genreRepository.deleteMovieLinks(id, movieIds)),
+                () -> genreService.delete(id, true));
+    }
+
+    @Timed("kmdb.service")
+    public JobStatus deleteActor(long id, boolean force) {
+        requireForce(force);
+        if (!actorRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Actor " + id + " not found");
+        }
+        return submit("actor", id, actorRepository.countMovieLinks(id),
+                () -> unlink(Target.ACTOR, id, actorRepository.findLinkedMovieIds(id, chunkSize),
+                        movieIds -> actorRepository.deleteMovieLinks(id, movieIds)),
+                () -> actorService.delete(id, true));
+    }
+
+    // A movie has a handful of links: no chunks, just the delete off the request thread
+    @Timed("kmdb.service")
+    public JobStatus deleteMovie(long id, boolean force) {
+        requireForce(force);
+        if (!movieRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Movie " + id + " not found");
+        }
+        return submit("movie", id, 0, () -> 0, () -> movieService.delete(id, true));
+    }
+
+    // One chunk (inside its transaction): removes the links to these movies and names them for the listeners
+    private int unlink(Target target, long id, List<Long> movieIds, ToIntFunction<List<Long>> delete) {
+        if (movieIds.isEmpty()) {
+            return 0;
+        }
+        int removed = delete.applyAsInt(movieIds);
+        events.publishEvent(new MovieLinksRemovedEvent(target, id, movieIds));
+        return removed;
+    }
+
+    // Without force there is nothing slow to offload: the delete is refused or removes a row without links
+    private static void requireForce(boolean force) {
+        if (!force) {
+            throw new IllegalArgumentException("async=true is only supported together with force=true.");
+        }
+    }
+
+    public Optional<JobStatus> find(String id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id)).map(Job::status);
+        }
+    }
+
+    public long busyRetries() {
+        return busyRetries.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow(); // A running job stops between chunks, the links removed so far stay removed
+    }
+
+    private JobStatus submit(String type, long targetId, long totalLinks, IntSupplier chunk, Runnable finish) {
+        Job job = new Job(UUID.randomUUID().toString(), type, targetId, totalLinks);
+        synchronized (jobs) {
+            forgetOldJobs();
+            jobs.put(job.id, job);
+        }
+        executor.execute(() -> run(job, chunk, finish));
+        return job.status();
+    }
+
+    private void run(Job job, IntSupplier chunk, Runnable finish) {
+        job.start();
+        try {
+            int removed;
+            do {
+                removed = withRetry(job, () -> transactionTemplate.execute(status -> chunk.getAsInt()));
+                job.chunkDone(removed);
+                if (removed > 0 && pauseMs > 0) {
+                    Thread.sleep(pauseMs); // Writer yielded between chunks
+                }
+            } while (removed >= chunkSize);
+            withRetry(job, () -> {
+                finish.run();
+                return 0;
+            });
+            job.finish(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish("Interrupted by shutdown");
+        } catch (RuntimeException e) {
+            job.finish(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    // Another connection kept the database locked past SQLite's busy timeout: back off and run the step again
+    private int withRetry(Job job, Supplier<Integer> step) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return step.get();
+            } catch (RuntimeException e) {
+                if (attempt == MAX_ATTEMPTS || !SqliteErrors.isBusy(e)) {
+                    throw e;
+                }
+                job.retried();
+                busyRetries.incrementAndGet();
+                Thread.sleep(Math.min(1000, Math.max(pauseMs, 10) << attempt));
+            }
+        }
+    }
+
+    private void forgetOldJobs() {
+        List<String> finished = new ArrayList<>();
+        jobs.forEach((id, job) -> {
+            if (job.isFinished()) {
+                finished.add(id);
+            }
+        });
+        for (int i = 0; i < finished.size() - MAX_FINISHED + 1; i++) {
+            jobs.remove(finished.get(i));
+        }
+    }
+
+    // Mutable state of one job, written by the job thread and read by status requests
+    private static final class Job {
+        final String id;
+        final String type;
+        final long targetId;
+        final long totalLinks;
+        final Instant submittedAt = Instant.now();
+        private String state = "QUEUED";
+        private long removedLinks;
+        private int chunks;
+        private int retries;
+        private Instant startedAt;
+        private Instant finishedAt;
+        private long startNanos;
+        private long elapsedNanos;
+        private String error;
+
+        Job(String id, String type, long targetId, long totalLinks) {
+            this.id = id;
+            this.type = type;
+            this.targetId = targetId;
+            this.totalLinks = totalLinks;
+        }
+
+        synchronized void start() {
+            state = "RUNNING";
+            startedAt = Instant.now();
+            startNanos = System.nanoTime();
+        }
+
+        synchronized void chunkDone(int removed) {
+            if (removed > 0) {
+                chunks++;
+                removedLinks += removed;
+            }
+        }
+
+        synchronized void retried() {
+            retries++;
+        }
+
+        synchronized void finish(String failure) {
+            state = failure == null ? "SUCCEEDED" : "FAILED";
+            error = failure;
+            finishedAt = Instant.now();
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+
+        synchronized boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        synchronized JobStatus status() {
+            long nanos = finishedAt != null ? elapsedNanos : startedAt != null ? System.nanoTime() - startNanos : 0;
+            double percent = "SUCCEEDED".equals(state) ? 100.0
+                    : totalLinks > 0 ? Math.min(100.0, removedLinks * 1000 / totalLinks / 10.0) : 0.0;
+            double linksPerSecond = nanos > 0 ? Math.round(removedLinks * 1e10 / nanos) / 10.0 : 0.0;
+            return new JobStatus(id, type, targetId, state, totalLinks, removedLinks, chunks, retries, percent,
+                    submittedAt, startedAt, finishedAt, nanos / 1_000_000, linksPerSecond, error);
+        }
+    }
+}
@@ -1,13 +1,29 @@
 package tech.kood.kmdb.service;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.annotation.Timed;
+
+import tech.kood.kmdb.dto.CursorPage;
+import tech.kood.kmdb.dto.Fields;
+import tech.kood.kmdb.dto.GenreDTO;
+import tech.kood.kmdb.dto.MovieDTO;
+import tech.kood.kmdb.dto.MultiGet;
+import tech.kood.kmdb.event.GenreChangedEvent;
 import tech.kood.kmdb.exception.DuplicateResourceException;
 import tech.kood.kmdb.exception.ResourceNotFoundException;
 import tech.kood.kmdb.model.Genre;
@@ -16,18 +32,25 @@ import tech.kood.kmdb.repository.GenreRepository;
 import tech.kood.kmdb.repository.MovieRepository;
 
 // Business logic: CRUD and handle relationships
-// Extra: Pagination
+// Extra: Pagination (offset or keyset)
 // Bonus: Prevent duplication
+// Reads return DTOs mapped inside the transaction, sparse ones (Fields) leave unshown collections unloaded
+@Timed("kmdb.service")
 @Service
 public class GenreService {
-    
+
+    private static final Map<String, Class<?>> SORTABLE = Map.of("id", Long.class, "name", String.class);
+
     private final GenreRepository genreRepository;
-    private final MovieRepository movieRepository; // To update owning side on force delete
+    private final MovieRepository movieRepository; // Movies of a genre
+    private final ApplicationEventPublisher events; // Caches and indexes react after commit
 
     // Spring will inject the repository
-    public GenreService(GenreRepository genreRepository, MovieRepository movieRepository) {
+    public GenreService(GenreRepository genreRepository, MovieRepository movieRepository,
+            ApplicationEventPublisher events) {
         this.genreRepository = genreRepository;
         this.movieRepository = movieRepository;
+        this.events = events;
     }
 
     // CRUD
@@ -44,25 +67,49 @@ public class GenreService {
         if (genreRepository.existsByNameIgnoreCase(trimmed)) {
             throw new DuplicateResourceException("Genre '" + trimmed + "' already exists.");
         }
-        genre.setName(trimmed); // Normalize
-
-        return genreRepository.save(genre);
+        Genre saved = genreRepository.save(new Genre(trimmed)); // Normalized copy: the write queue may run the write again
+        events.publishEvent(new GenreChangedEvent(saved.getId(), null, saved.getName()));
+        return saved;
     }
     
     @Transactional(readOnly = true)
-    public List<Genre> findAll() {
-        return genreRepository.findAll();
+    public List<GenreDTO> findAll(Fields fields) {
+        List<Genre> genres = fields.has("movies")
+                ? genreRepository.findAll()
+                : genreRepository.findAll(Pageable.unpaged()).getContent(); // Same rows without the movies fetch join
+        return genres.stream().map(genre -> GenreDTO.of(genre, fields)).toList();
     }
 
     @SuppressWarnings("null")
     @Transactional(readOnly = true)
-    public Page<Genre> findAll(Pageable pageable) {
-        return genreRepository.findAll(pageable); 
+    public Page<GenreDTO> findAll(Pageable pageable, Fields fields) {
+        return genreRepository.findAll(pageable).map(genre -> GenreDTO.of(genre, fields));
     }
 
     @Transactional(readOnly = true)
-    public Optional<Genre> findbyId(long id) { // Return Optional instead of null if not found
-        return genreRepository.findById(id);
+    public CursorPage<GenreDTO> scroll(String sortKey, String after, int size, Fields fields) {
+        Sort sort = CursorCodec.sort(sortKey, SORTABLE);
+        KeysetScrollPosition position = CursorCodec.decode(after, sort, SORTABLE);
+        Window<Genre> window = genreRepository.findBy(
+                CursorCodec.seek((root, query, cb) -> cb.conjunction(), position, sort),
+                q -> q.sortBy(sort).limit(size).scroll(position));
+        return new CursorPage<>(window.map(genre -> GenreDTO.of(genre, fields)).getContent(), size, CursorCodec.next(window));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<GenreDTO> findbyId(long id, Fields fields) { // Return Optional instead of null if not found
+        return genreRepository.findById(id).map(genre -> GenreDTO.of(genre, fields));
+    }
+
+    // ?ids=: one query for the genres with their movies (if shown), request order kept
+    @Transactional(readOnly = true)
+    public MultiGet<GenreDTO> findAllById(List<Long> ids, Fields fields) {
+        List<Long> requested = MultiGet.requested(ids);
+        List<Genre> genres = fields.has("movies")
+                ? genreRepository.findByIdIn(requested)
+                : genreRepository.findAllById(requested);
+        return MultiGet.of(requested, genres.stream()
+                .map(genre -> GenreDTO.of(genre, fields)).collect(Collectors.toMap(GenreDTO::id, Function.identity())));
     }
 
     @Transactional
@@ -78,6 +125,7 @@ public class GenreService {
                 throw new DuplicateResourceException("Genre '" + trimmed + "' already exists.");
             }
 
+            events.publishEvent(new GenreChangedEvent(id, genre.getName(), newName));
             genre.setName(newName);
             return genreRepository.save(genre);
         });
@@ -85,35 +133,40 @@ public class GenreService {
 
     @Transactional
     public void delete(long id) {
-        genreRepository.deleteById(id);
+        genreRepository.findById(id).ifPresent(genre -> {
+            genreRepository.delete(genre);
+            events.publishEvent(new GenreChangedEvent(id, genre.getName(), null));
+        });
     }
 
-    // Force delete
+    // Force delete: the links go with one set-based DELETE on the join table, no movie is loaded
     @Transactional
     public void delete(long id, boolean force) {
         Genre genre = genreRepository.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("Genre " + id + " not found"));
 
-        int related = genre.getMovies().size();
+        long related = genreRepository.countMovieLinks(id);
         if (!force && related > 0) {
             String name = genre.getName();
             throw new IllegalArgumentException("Cannot delete genre '" + name + "' because it has " + related + " associated movies."); // 400 The GlobalException handler maps IllegalArgumentException
         }
 
-        if (force) { // Detach from owning side and make a copy to avoid concurrent modification
-            for (Movie m : List.copyOf(genre.getMovies())) {
-                m.getGenres().remove(genre); // Remove the link
-                movieRepository.save(m); // Persist change in the join table.
-            }
+        if (related > 0) { // Also evicts the affected caches and clears the persistence context
+            genreRepository.deleteMovieLinks(id);
         }
 
-        genreRepository.delete(genre);
+        genreRepository.deleteById(id); // By id: after the bulk delete the loaded instance is detached
+        events.publishEvent(new GenreChangedEvent(id, genre.getName(), null));
     }
 
     @Transactional(readOnly = true)
-    public List<Movie> findMoviesByGenre(long genreId) {
-        return genreRepository.findById(genreId)
-        .map(genre -> genre.getMovies().stream().toList())
-        .orElse(List.of()); // Empty list if genre not found
+    public List<MovieDTO> findMoviesByGenre(long genreId, Fields fields) {
+        List<Movie> movies = fields.hasAll(MovieDTO.COLLECTIONS)
+                ? movieRepository.findByGenres_Id(genreId)
+                : movieRepository.findByGenres_Id(genreId, Pageable.unpaged()).getContent(); // No fetch joins
+        return movies.stream() // Empty list if genre not found
+        .map(movie -> MovieDTO.of(movie, fields))
+        .sorted(Comparator.comparing(MovieDTO::id))
+        .toList();
     }
 }
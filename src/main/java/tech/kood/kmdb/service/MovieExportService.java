@@ -0,0 +1,231 @@
+package tech.kood.kmdb.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.annotation.Timed;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import tech.kood.kmdb.dto.ActorRef;
+import tech.kood.kmdb.dto.GenreRef;
+import tech.kood.kmdb.dto.MovieDTO;
+import tech.kood.kmdb.model.Movie;
+import tech.kood.kmdb.repository.MovieRepository;
+
+// Whole-catalog export (NDJSON or CSV) written straight to the response stream.
+// One read-only transaction walks the movies with a forward-only cursor. Every chunk loads its
+// genres/actors with two IN queries, is written and flushed, then the persistence context is cleared:
+// memory depends on the chunk size, not on the catalog size.
+@Timed("kmdb.service")
+@Service
+public class MovieExportService {
+
+    static final int CHUNK_SIZE = 500;
+
+    public enum Format {
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid format '" + value + "': use ndjson or csv.");
+            }
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final MovieRepository movieRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public MovieExportService(MovieRepository movieRepository, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        this.movieRepository = movieRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    // Returns the number of movies written
+    public long export(Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rows = format == Format.CSV ? new CsvRows(writer) : new NdjsonRows(writer);
+        try {
+            Long written = transactionTemplate.execute(status -> {
+                long count = 0;
+                List<Movie> chunk = new ArrayList<>(CHUNK_SIZE);
+                try (Stream<Movie> movies = movieRepository.streamAll()) {
+                    Iterator<Movie> it = movies.iterator();
+                    while (it.hasNext()) {
+                        chunk.add(it.next());
+                        if (chunk.size() == CHUNK_SIZE) {
+                            count += writeChunk(chunk, rows);
+                        }
+                    }
+                }
+                return count + writeChunk(chunk, rows);
+            });
+            rows.finish();
+            return written != null ? written : 0;
+        } catch (UncheckedIOException e) { // Client went away, the transaction is already rolled back
+            throw e.getCause();
+        }
+    }
+
+    private int writeChunk(List<Movie> chunk, RowWriter rows) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = chunk.stream().map(Movie::getId).toList();
+        Map<Long, List<GenreRef>> genres = group(movieRepository.findGenreRows(ids),
+                r -> new GenreRef((Long) r[1], (String) r[2]), Comparator.comparing(GenreRef::id));
+        Map<Long, List<ActorRef>> actors = group(movieRepository.findActorRows(ids),
+                r -> new ActorRef((Long) r[1], (String) r[2], (LocalDate) r[3]), Comparator.comparing(ActorRef::id));
+        try {
+            for (Movie m : chunk) {
+                rows.write(new MovieDTO(m.getId(), m.getTitle(), m.getReleaseYear(), m.getDuration(),
+                        genres.getOrDefault(m.getId(), List.of()), actors.getOrDefault(m.getId(), List.of()),
+                        0)); // No ETag on export rows
+            }
+            rows.flush(); // Push the chunk to the client
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int size = chunk.size();
+        chunk.clear();
+        entityManager.clear(); // Drop the written movies from the persistence context
+        return size;
+    }
+
+    // [movieId, ...] rows -> movieId -> sorted refs
+    private static <T> Map<Long, List<T>> group(List<Object[]> rows,
+            Function<Object[], T> ref, Comparator<T> order) {
+        Map<Long, List<T>> byMovie = rows.stream().collect(Collectors.groupingBy(r -> (Long) r[0], HashMap::new,
+                Collectors.mapping(ref, Collectors.toList())));
+        byMovie.values().forEach(list -> list.sort(order));
+        return byMovie;
+    }
+
+    private interface RowWriter {
+        void write(MovieDTO movie) throws IOException;
+        void flush() throws IOException;
+        void finish() throws IOException;
+    }
+
+    // One JSON object per line, same shape as GET /api/movies/{id}
+    private final class NdjsonRows implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator json;
+        private final ObjectWriter movieWriter = objectMapper.writerFor(MovieDTO.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        NdjsonRows(Writer writer) throws IOException {
+            this.writer = writer;
+            this.json = objectMapper.createGenerator(writer)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM) // Flushing the generator stops at the BufferedWriter
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.json.setRootValueSeparator(null);
+        }
+
+        public void write(MovieDTO movie) throws IOException {
+            movieWriter.writeValue(json, movie);
+            json.flush();
+            writer.write('\n');
+        }
+
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    // RFC 4180 CSV, genres/actors as names separated by '|'
+    private static final class CsvRows implements RowWriter {
+        private final Writer writer;
+
+        CsvRows(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write("id,title,releaseYear,duration,genres,actors\r\n");
+        }
+
+        public void write(MovieDTO m) throws IOException {
+            writer.write(String.valueOf(m.id()));
+            writer.write(',');
+            writer.write(quote(m.title()));
+            writer.write(',');
+            writer.write(String.valueOf(m.releaseYear()));
+            writer.write(',');
+            writer.write(String.valueOf(m.duration()));
+            writer.write(',');
+            writer.write(quote(m.genres().stream().map(GenreRef::name).collect(Collectors.joining("|"))));
+            writer.write(',');
+            writer.write(quote(m.actors().stream().map(ActorRef::name).collect(Collectors.joining("|"))));
+            writer.write("\r\n");
+        }
+
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String quote(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
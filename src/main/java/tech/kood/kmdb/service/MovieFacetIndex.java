@@ -0,0 +1,345 @@
+package tech.kood.kmdb.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import tech.kood.kmdb.dto.MovieFacets;
+import tech.kood.kmdb.dto.MovieFilter;
+import tech.kood.kmdb.event.ActorChangedEvent;
+import tech.kood.kmdb.event.GenreChangedEvent;
+import tech.kood.kmdb.event.MovieChangedEvent;
+import tech.kood.kmdb.event.MovieLinksRemovedEvent;
+
+// In-memory facet index: one Roaring bitmap of movie ids per genre, per release year and per actor.
+// A facet query intersects the bitmaps of its filter, then counts the overlap with every genre and
+// year bitmap (andCardinality, nothing materialized) and ranks the actors.
+// Built when the app is ready, then kept up to date from the change events after each commit.
+@Component
+public class MovieFacetIndex {
+
+    public static final int MAX_ACTORS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RoaringBitmap movies = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byGenre = new HashMap<>();
+    private final NavigableMap<Integer, RoaringBitmap> byYear = new TreeMap<>();
+    private final Map<Long, RoaringBitmap> byActor = new HashMap<>();
+    // Actor counting without a bitmap operation per actor: actors get dense slots, movie id -> its actors' slots
+    private final Map<Long, Integer> actorSlots = new HashMap<>();
+    private long[] slotActorIds = new long[1024];
+    private int slotCount;
+    private int[][] actorsByMovie = new int[1024][];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public MovieFacetIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true) // Reader pool, one snapshot for all the queries
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            movies.clear();
+            byGenre.clear();
+            byYear.clear();
+            byActor.clear();
+            actorSlots.clear();
+            slotCount = 0;
+            actorsByMovie = new int[1024][];
+            jdbcTemplate.query("select id, release_year from movie", rs -> {
+                int id = movieId(rs.getLong(1));
+                movies.add(id);
+                bitmap(byYear, rs.getInt(2)).add(id);
+            });
+            jdbcTemplate.query("select genre_id, movie_id from \"movie-genres\"", rs -> {
+                bitmap(byGenre, rs.getLong(1)).add(movieId(rs.getLong(2)));
+            });
+            jdbcTemplate.query("select actor_id, movie_id from \"movie-actors\"", rs -> {
+                long actorId = rs.getLong(1);
+                int id = movieId(rs.getLong(2));
+                bitmap(byActor, actorId).add(id);
+                int[] slots = id < actorsByMovie.length ? actorsByMovie[id] : null;
+                int slot = slot(actorId);
+                setActors(id, slots == null ? new int[] { slot } : append(slots, slot));
+            });
+            movies.runOptimize();
+            byGenre.values().forEach(RoaringBitmap::runOptimize);
+            byYear.values().forEach(RoaringBitmap::runOptimize);
+            byActor.values().forEach(RoaringBitmap::runOptimize);
+            ready = true;
+            System.out.println(">>> FACET INDEX: " + movies.getCardinality() + " movies, " + byGenre.size() + " genres, "
+                    + byYear.size() + " years, " + byActor.size() + " actors in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        int id = movieId(event.movieId());
+        lock.writeLock().lock();
+        try {
+            if (event.before() != null) {
+                movies.remove(id);
+                unlink(byYear, event.before().releaseYear(), id);
+                event.before().genreIds().forEach(g -> unlink(byGenre, g, id));
+                event.before().actorIds().forEach(a -> unlink(byActor, a, id));
+                setActors(id, null);
+            }
+            if (event.after() != null) {
+                movies.add(id);
+                bitmap(byYear, event.after().releaseYear()).add(id);
+                event.after().genreIds().forEach(g -> bitmap(byGenre, g).add(id));
+                event.after().actorIds().forEach(a -> bitmap(byActor, a).add(id));
+                if (!event.after().actorIds().isEmpty()) {
+                    setActors(id, event.after().actorIds().stream().mapToInt(this::slot).toArray());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A (force) deleted genre or actor leaves its movies without publishing a MovieChangedEvent per movie
+    @TransactionalEventListener
+    public void onGenreChanged(GenreChangedEvent event) {
+        if (event.newName() != null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            byGenre.remove(event.genreId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onActorChanged(ActorChangedEvent event) {
+        if (event.newName() != null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            RoaringBitmap linked = byActor.remove(event.actorId());
+            Integer slot = actorSlots.remove(event.actorId()); // The slot itself is not reused
+            if (linked != null && slot != null) {
+                linked.forEach((int id) -> removeSlot(id, slot));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // One chunk of an async force delete: the movies leave the genre/actor now, not when the job ends
+    @TransactionalEventListener
+    public void onLinksRemoved(MovieLinksRemovedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.target() == MovieLinksRemovedEvent.Target.GENRE) {
+                event.movieIds().forEach(id -> unlink(byGenre, event.targetId(), movieId(id)));
+                return;
+            }
+            event.movieIds().forEach(id -> unlink(byActor, event.targetId(), movieId(id)));
+            Integer slot = actorSlots.get(event.targetId());
+            if (slot != null) {
+                event.movieIds().forEach(id -> removeSlot(movieId(id), slot));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Empty until the index is built
+    public Optional<MovieFacets> facets(MovieFilter filter, int actorLimit) {
+        filter.validate();
+        if (filter.minDuration() != null || filter.maxDuration() != null || filter.title() != null) {
+            throw new IllegalArgumentException("Facets support genre, actor and year filters only.");
+        }
+        if (actorLimit < 0 || actorLimit > MAX_ACTORS) {
+            throw new IllegalArgumentException("actorLimit must be between 0 and " + MAX_ACTORS + ".");
+        }
+        if (!ready) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            RoaringBitmap base = matching(filter);
+
+            Map<Long, Integer> genres = new TreeMap<>();
+            byGenre.forEach((genreId, bitmap) -> {
+                int count = RoaringBitmap.andCardinality(base, bitmap);
+                if (count > 0) {
+                    genres.put(genreId, count);
+                }
+            });
+            Map<Integer, Integer> years = new TreeMap<>();
+            byYear.forEach((year, bitmap) -> {
+                int count = RoaringBitmap.andCardinality(base, bitmap);
+                if (count > 0) {
+                    years.put(year, count);
+                }
+            });
+            List<MovieFacets.ActorCount> actors = topActors(base, actorLimit);
+
+            return Optional.of(new MovieFacets(base.getLongCardinality(), genres, years, actors,
+                    (System.nanoTime() - start) / 1_000));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Intersection of the filter's dimensions (genres/actors: union for "any", intersection for "all")
+    private RoaringBitmap matching(MovieFilter filter) {
+        List<RoaringBitmap> parts = new ArrayList<>();
+        if (!filter.genre().isEmpty()) {
+            parts.add(combine(filter.genre().stream().map(byGenre::get).toList(), filter.allGenres()));
+        }
+        if (!filter.actor().isEmpty()) {
+            parts.add(combine(filter.actor().stream().map(byActor::get).toList(), filter.allActors()));
+        }
+        if (filter.fromYear() != null || filter.toYear() != null) {
+            int from = filter.fromYear() != null ? filter.fromYear() : Integer.MIN_VALUE;
+            int to = filter.toYear() != null ? filter.toYear() : Integer.MAX_VALUE;
+            parts.add(FastAggregation.or(byYear.subMap(from, true, to, true).values().iterator()));
+        }
+        if (parts.isEmpty()) {
+            return movies;
+        }
+        return parts.size() == 1 ? parts.get(0) : FastAggregation.and(parts.toArray(RoaringBitmap[]::new));
+    }
+
+    private static RoaringBitmap combine(List<RoaringBitmap> bitmaps, boolean all) {
+        if (bitmaps.contains(null)) { // Unknown id
+            if (all) {
+                return new RoaringBitmap();
+            }
+            bitmaps = bitmaps.stream().filter(b -> b != null).toList();
+        }
+        if (bitmaps.isEmpty()) {
+            return new RoaringBitmap();
+        }
+        RoaringBitmap[] array = bitmaps.toArray(RoaringBitmap[]::new);
+        return all ? FastAggregation.and(array) : FastAggregation.or(array);
+    }
+
+    // Count per actor slot (no filter: the actors' own cardinalities, otherwise a walk over the matching
+    // movies' actors), then keep the top ones in a small heap
+    private List<MovieFacets.ActorCount> topActors(RoaringBitmap base, int limit) {
+        if (limit == 0) {
+            return List.of();
+        }
+        int[] counts = new int[slotCount];
+        if (base == movies) {
+            byActor.forEach((actorId, bitmap) -> counts[actorSlots.get(actorId)] = bitmap.getCardinality());
+        } else {
+            base.forEach((int id) -> {
+                int[] slots = id < actorsByMovie.length ? actorsByMovie[id] : null;
+                if (slots != null) {
+                    for (int slot : slots) {
+                        counts[slot]++;
+                    }
+                }
+            });
+        }
+
+        // Weakest on top: lower count, then higher actor id
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1,
+            Comparator.<Integer>comparingInt(slot -> counts[slot])
+                .thenComparing(slot -> slotActorIds[slot], Comparator.reverseOrder()));
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] == 0) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(slot);
+            } else if (top.comparator().compare(slot, top.peek()) > 0) {
+                top.poll();
+                top.add(slot);
+            }
+        }
+        List<MovieFacets.ActorCount> actors = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int slot = top.poll();
+            actors.add(new MovieFacets.ActorCount(slotActorIds[slot], counts[slot]));
+        }
+        Collections.reverse(actors);
+        return actors;
+    }
+
+    private int slot(long actorId) {
+        return actorSlots.computeIfAbsent(actorId, id -> {
+            if (slotCount == slotActorIds.length) {
+                slotActorIds = Arrays.copyOf(slotActorIds, slotCount * 2);
+            }
+            slotActorIds[slotCount] = id;
+            return slotCount++;
+        });
+    }
+
+    private void setActors(int movieId, int[] slots) {
+        if (movieId >= actorsByMovie.length) {
+            if (slots == null) {
+                return;
+            }
+            actorsByMovie = Arrays.copyOf(actorsByMovie, Math.max(movieId + 1, actorsByMovie.length * 2));
+        }
+        actorsByMovie[movieId] = slots;
+    }
+
+    private void removeSlot(int movieId, int slot) {
+        if (movieId < actorsByMovie.length && actorsByMovie[movieId] != null) {
+            int[] rest = Arrays.stream(actorsByMovie[movieId]).filter(a -> a != slot).toArray();
+            actorsByMovie[movieId] = rest.length == 0 ? null : rest;
+        }
+    }
+
+    private static <K> RoaringBitmap bitmap(Map<K, RoaringBitmap> map, K key) {
+        return map.computeIfAbsent(key, k -> new RoaringBitmap());
+    }
+
+    private static <K> void unlink(Map<K, RoaringBitmap> map, K key, int movieId) {
+        RoaringBitmap bitmap = map.get(key);
+        if (bitmap != null) {
+            bitmap.remove(movieId);
+            if (bitmap.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    private static int[] append(int[] slots, int slot) {
+        int[] all = Arrays.copyOf(slots, slots.length + 1);
+        all[slots.length] = slot;
+        return all;
+    }
+
+    // Roaring bitmaps hold 32-bit values, movie ids come from a sequence that stays far below that
+    private static int movieId(long id) {
+        return Math.toIntExact(id);
+    }
+}
@@ -0,0 +1,263 @@
+package tech.kood.kmdb.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.annotation.Timed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import tech.kood.kmdb.dto.ImportReport;
+import tech.kood.kmdb.dto.MovieImportRow;
+import tech.kood.kmdb.event.ActorChangedEvent;
+import tech.kood.kmdb.event.GenreChangedEvent;
+import tech.kood.kmdb.event.MovieChangedEvent;
+import tech.kood.kmdb.model.Actor;
+import tech.kood.kmdb.model.Genre;
+import tech.kood.kmdb.model.Movie;
+
+// Bulk import of movies from an NDJSON stream (one movie per line).
+// Lines are read one by one and written in chunks: one transaction per chunk,
+// Hibernate JDBC batching for the movie and join table inserts, and the persistence
+// context is cleared after every chunk so memory stays flat.
+// A failing chunk is rolled back and reported, the next chunks keep going.
+@Timed("kmdb.service")
+@Service
+public class MovieImportService {
+
+    public static final int MAX_CHUNK_SIZE = 10_000;
+    private static final int MAX_REPORTED_FAILURES = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher events;
+    private final int defaultChunkSize;
+
+    public MovieImportService(
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            Validator validator,
+            ApplicationEventPublisher events,
+            @Value("${kmdb.import.chunk-size:1000}") int defaultChunkSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.events = events;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    public ImportReport importNdjson(InputStream body, Integer chunkSize) {
+        int size = chunkSize != null ? chunkSize : defaultChunkSize;
+        if (size < 1 || size > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("chunkSize must be between 1 and " + MAX_CHUNK_SIZE + ".");
+        }
+
+        Import run = new Import(size);
+        long start = System.nanoTime();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                run.lines++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                PendingRow row = parse(run, line);
+                if (row != null) {
+                    run.pending.add(row);
+                }
+                if (run.pending.size() >= size) {
+                    writeChunk(run);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read import body", e);
+        }
+        writeChunk(run);
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        double rowsPerSecond = elapsedMs > 0 ? run.imported * 1000.0 / elapsedMs : run.imported;
+        return new ImportReport(run.lines, run.imported, run.failed, run.chunks, size, elapsedMs,
+                Math.round(rowsPerSecond * 10) / 10.0, run.failures);
+    }
+
+    // Line -> unsaved Movie (scalar fields only) + its names, or null if the line is rejected
+    private PendingRow parse(Import run, String line) {
+        MovieImportRow row;
+        try {
+            row = objectMapper.readValue(line, MovieImportRow.class);
+        } catch (JsonProcessingException e) {
+            run.reject(run.lines, "Invalid JSON: " + e.getOriginalMessage());
+            return null;
+        }
+
+        Movie movie = new Movie(row.title(),
+                row.releaseYear() != null ? row.releaseYear() : 0,
+                row.duration() != null ? row.duration() : 0);
+        List<String> errors = validator.validate(movie).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+        if (!errors.isEmpty()) {
+            run.reject(run.lines, String.join(", ", errors));
+            return null;
+        }
+        return new PendingRow(run.lines, movie, row);
+    }
+
+    private void writeChunk(Import run) {
+        if (run.pending.isEmpty()) {
+            return;
+        }
+        run.chunks++;
+        List<PendingRow> rows = List.copyOf(run.pending);
+        run.pending.clear();
+
+        Map<String, Long> newGenres = new HashMap<>();
+        Map<String, Long> newActors = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Hibernate batches join rows per collection role and sends a batch as soon as the role changes:
+                // genres and actors linked movie by movie would cost two statements per movie. Genres go in with the
+                // movies, actors in a second flush, so each join table is one batch per chunk.
+                // New actors are persisted before the first flush all the same: an id block (<table>_seq) is taken
+                // on a second writer connection, which gets SQLITE_BUSY once this transaction holds the write lock.
+                Map<Movie, List<Long>> cast = new HashMap<>(); // Identity keys
+                for (PendingRow row : rows) {
+                    Movie movie = row.movie();
+                    for (String name : names(row.source().genres())) {
+                        movie.getGenres().add(entityManager.getReference(Genre.class,
+                                resolve(name, run.genreIds, newGenres, () -> new Genre(name))));
+                    }
+                    cast.put(movie, names(row.source().actors()).stream()
+                            .map(name -> resolve(name, run.actorIds, newActors, () -> new Actor(name, LocalDate.of(1970, 1, 1))))
+                            .toList());
+                    entityManager.persist(movie);
+                }
+                entityManager.flush();
+                for (PendingRow row : rows) {
+                    Movie movie = row.movie();
+                    for (Long actorId : cast.get(movie)) {
+                        movie.getActors().add(entityManager.getReference(Actor.class, actorId));
+                    }
+                    events.publishEvent(new MovieChangedEvent(movie.getId(), null, MovieChangedEvent.State.of(movie)));
+                }
+                entityManager.flush(); // Sends the batched inserts inside the chunk transaction
+                entityManager.clear();
+            });
+            run.genreIds.putAll(newGenres);
+            run.actorIds.putAll(newActors);
+            run.imported += rows.size();
+        } catch (RuntimeException e) { // Chunk rolled back, names created in it are forgotten
+            run.failed += rows.size();
+            run.report(new ImportReport.Failure(run.chunks, rows.get(0).line(), rows.get(rows.size() - 1).line(),
+                    "Chunk rolled back: " + rootMessage(e)));
+        }
+    }
+
+    // Name -> id through the in-memory lookup, persisting a new entity the first time a name is seen
+    private <T> Long resolve(String name, Map<String, Long> known, Map<String, Long> createdInChunk,
+            Supplier<T> factory) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Long id = known.get(key);
+        if (id == null) {
+            id = createdInChunk.get(key);
+        }
+        if (id == null) {
+            T entity = factory.get();
+            entityManager.persist(entity);
+            id = (Long) entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+            createdInChunk.put(key, id);
+            // Delivered only if the chunk commits
+            if (entity instanceof Actor actor) {
+                events.publishEvent(new ActorChangedEvent(id, null, actor.getName()));
+            } else if (entity instanceof Genre genre) {
+                events.publishEvent(new GenreChangedEvent(id, null, genre.getName()));
+            }
+        }
+        return id;
+    }
+
+    private static List<String> names(List<String> raw) {
+        if (raw == null) {
+            return List.of();
+        }
+        return raw.stream()
+                .filter(n -> n != null && !n.isBlank())
+                .map(String::trim)
+                .distinct()
+                .toList();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    // lower(name) -> id, only the two columns are loaded
+    private Map<String, Long> loadIds(String entity) {
+        Map<String, Long> ids = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createQuery("select e.name, e.id from " + entity + " e", Object[].class)
+                .getResultStream()
+                .forEach(r -> ids.putIfAbsent(((String) r[0]).toLowerCase(Locale.ROOT), (Long) r[1])));
+        return ids;
+    }
+
+    private record PendingRow(long line, Movie movie, MovieImportRow source) {}
+
+    // Mutable state of one import run
+    private final class Import {
+        final List<PendingRow> pending;
+        final Map<String, Long> genreIds = loadIds("Genre");
+        final Map<String, Long> actorIds = loadIds("Actor");
+        final List<ImportReport.Failure> failures = new ArrayList<>();
+        long lines;
+        long imported;
+        long failed;
+        int chunks;
+
+        Import(int chunkSize) {
+            this.pending = new ArrayList<>(chunkSize);
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            report(new ImportReport.Failure(chunks + 1, line, line, message));
+        }
+
+        void report(ImportReport.Failure failure) {
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(failure);
+            }
+        }
+    }
+}
@@ -1,29 +1,64 @@
 package tech.kood.kmdb.service;
 
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.annotation.Timed;
+
+import tech.kood.kmdb.dto.ActorDTO;
+import tech.kood.kmdb.dto.CursorPage;
+import tech.kood.kmdb.dto.Fields;
+import tech.kood.kmdb.dto.MovieDTO;
+import tech.kood.kmdb.dto.MovieFilter;
 import tech.kood.kmdb.dto.MoviePatchDTO;
+import tech.kood.kmdb.dto.MultiGet;
+import tech.kood.kmdb.event.MovieChangedEvent;
 import tech.kood.kmdb.exception.ResourceNotFoundException;
 import tech.kood.kmdb.model.Actor;
 import tech.kood.kmdb.model.Genre;
 import tech.kood.kmdb.model.Movie;
 import tech.kood.kmdb.repository.MovieRepository;
+import tech.kood.kmdb.repository.MovieSearchRepository;
+import tech.kood.kmdb.repository.MovieSpecifications;
 
 // Business logic: CRUD, filtering, and handle relationships
-// Extra: Pagination and title search.
+// Extra: Pagination (offset or keyset) and title search (full-text, LIKE as fallback).
+// Reads return DTOs mapped inside the transaction (collections batch fetched, see default_batch_fetch_size).
+// Concurrent identical reads share one load (@Coalesced, see ReadCoalescing).
+// Reads behind the controllers take Fields: collections a sparse read doesn't show are never loaded.
+@Timed("kmdb.service") // Timer per public method, tagged class + method
 @Service
 public class MovieService {
 
+    // Keyset sort keys and their types (cursor values are decoded back to these)
+    private static final Map<String, Class<?>> SORTABLE =
+            Map.of("id", Long.class, "title", String.class, "releaseYear", Integer.class);
+
     private final MovieRepository movieRepository;
+    private final MovieSearchRepository movieSearchRepository;
+    private final ApplicationEventPublisher events; // Caches and indexes react after commit
 
-    public MovieService(MovieRepository movieRepository) {
+    public MovieService(MovieRepository movieRepository, MovieSearchRepository movieSearchRepository,
+            ApplicationEventPublisher events) {
         this.movieRepository = movieRepository;
+        this.movieSearchRepository = movieSearchRepository;
+        this.events = events;
     }
 
     // WRITE
@@ -31,12 +66,26 @@ public class MovieService {
     @SuppressWarnings("null")
     @Transactional
     public Movie create(Movie movie) {
-        return movieRepository.save(movie);
+        // A copy is persisted: the request body stays new if the write queue runs the write again
+        Movie entity = new Movie(movie.getTitle(), movie.getReleaseYear(), movie.getDuration());
+        if (movie.getGenres() != null) {
+            entity.setGenres(new HashSet<>(movie.getGenres()));
+        }
+        if (movie.getActors() != null) {
+            entity.setActors(new HashSet<>(movie.getActors()));
+        }
+        Movie saved = movieRepository.save(entity);
+        events.publishEvent(new MovieChangedEvent(saved.getId(), null, MovieChangedEvent.State.of(saved)));
+        return saved;
     }
 
     @Transactional
     public void delete(long id) {
-        movieRepository.deleteById(id);
+        movieRepository.findById(id).ifPresent(movie -> {
+            MovieChangedEvent.State before = MovieChangedEvent.State.of(movie);
+            movieRepository.delete(movie);
+            events.publishEvent(new MovieChangedEvent(id, before, null));
+        });
     }
 
     // Force delete
@@ -44,6 +93,7 @@ public class MovieService {
     public void delete(long id, boolean force) {
         Movie movie = movieRepository.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("Movie " + id + " not found"));
+        MovieChangedEvent.State before = MovieChangedEvent.State.of(movie);
 
         int related = movie.getGenres().size() + movie.getActors().size();
         if (!force && related > 0) {
@@ -61,6 +111,7 @@ public class MovieService {
         }
 
         movieRepository.delete(movie);
+        events.publishEvent(new MovieChangedEvent(id, before, null));
     }
 
     @SuppressWarnings("null")
@@ -68,6 +119,7 @@ public class MovieService {
     public Optional<Movie> update(long id, Movie updatemovie) {
         return movieRepository.findById(id)
         .map(movie -> {
+            MovieChangedEvent.State before = MovieChangedEvent.State.of(movie);
             if (updatemovie.getTitle() != null && !updatemovie.getTitle().isBlank()) {
                 movie.setTitle(updatemovie.getTitle());
             }
@@ -83,7 +135,9 @@ public class MovieService {
             if (updatemovie.getActors() != null) {
                 movie.setActors(updatemovie.getActors());
             }
-            return movieRepository.save(movie);
+            Movie saved = movieRepository.save(movie);
+            events.publishEvent(new MovieChangedEvent(id, before, MovieChangedEvent.State.of(saved)));
+            return saved;
         });
     }
 
@@ -92,6 +146,7 @@ public class MovieService {
     public Optional<Movie> update(long id, MoviePatchDTO patch) {
         return movieRepository.findById(id)
         .map(movie -> {
+            MovieChangedEvent.State before = MovieChangedEvent.State.of(movie);
             if (patch.getTitle() != null) {
                 movie.setTitle(patch.getTitle());
             }
@@ -101,41 +156,63 @@ public class MovieService {
             if (patch.getDuration() != null) {
                 movie.setDuration(patch.getDuration());
             }
-            return movieRepository.save(movie);
+            Movie saved = movieRepository.save(movie);
+            events.publishEvent(new MovieChangedEvent(id, before, MovieChangedEvent.State.of(saved)));
+            return saved;
         });
     }
 
     // READ
 
     @Transactional(readOnly = true)
-    public List<Movie> findAll() {
-        return movieRepository.findAll();
+    @Coalesced
+    public List<MovieDTO> findAll() {
+        return movieRepository.findAll().stream().map(MovieDTO::of).toList();
     }
 
     @Transactional(readOnly = true)
-    public Optional<Movie> findbyId(long id) { 
-        return movieRepository.findById(id);
+    @Coalesced
+    public Optional<MovieDTO> findbyId(long id, Fields fields) { 
+        return movieRepository.findById(id).map(movie -> MovieDTO.of(movie, fields));
     }
 
+    // ?ids=: one query for the movies with their genres, one batch of actors per default_batch_fetch_size movies,
+    // request order kept.
+    // A sparse read loads the rows alone, plus one batch per collection it shows.
     @Transactional(readOnly = true)
-    public List<Movie> findByGenre(Long genreId) {
-        return movieRepository.findByGenres_Id(genreId);
+    @Coalesced
+    public MultiGet<MovieDTO> findAllById(List<Long> ids, Fields fields) {
+        List<Long> requested = MultiGet.requested(ids);
+        List<Movie> movies = fields.hasAll(MovieDTO.COLLECTIONS)
+                ? movieRepository.findByIdIn(requested)
+                : movieRepository.findAllById(requested);
+        return MultiGet.of(requested, movies.stream()
+                .map(movie -> MovieDTO.of(movie, fields)).collect(Collectors.toMap(MovieDTO::id, Function.identity())));
     }
 
     @Transactional(readOnly = true)
-    public List<Movie> findByYear(int releaseYear) {
-        return movieRepository.findByReleaseYear(releaseYear);
+    @Coalesced
+    public List<MovieDTO> findByGenre(Long genreId) {
+        return movieRepository.findByGenres_Id(genreId).stream().map(MovieDTO::of).toList();
     }
 
     @Transactional(readOnly = true)
-    public List<Movie> findByActor(long actorId) {
-        return movieRepository.findByActors_Id(actorId);
+    @Coalesced
+    public List<MovieDTO> findByYear(int releaseYear) {
+        return movieRepository.findByReleaseYear(releaseYear).stream().map(MovieDTO::of).toList();
+    }
+
+    @Transactional(readOnly = true)
+    @Coalesced
+    public List<MovieDTO> findByActor(long actorId) {
+        return movieRepository.findByActors_Id(actorId).stream().map(MovieDTO::of).toList();
     }
    
     @Transactional(readOnly = true)
-    public List<Actor> getActorsForMovie(long movieId) {
+    @Coalesced
+    public List<ActorDTO> getActorsForMovie(long movieId, Fields fields) {
         return movieRepository.findById(movieId)
-                .map(movie -> movie.getActors().stream().toList())
+                .map(movie -> movie.getActors().stream().map(actor -> ActorDTO.of(actor, fields)).sorted(Comparator.comparing(ActorDTO::id)).toList())
                 .orElse(List.of()); 
     }
 
@@ -143,27 +220,77 @@ public class MovieService {
 
     @SuppressWarnings("null")
     @Transactional(readOnly = true)
-    public Page<Movie> findAll(Pageable pageable) {
-        return movieRepository.findAll(pageable); // JpaRepository already provides findAll(Pageable) -> No need to declare in repo
+    @Coalesced
+    public Page<MovieDTO> findAll(Pageable pageable, Fields fields) {
+        return movieRepository.findAll(pageable).map(movie -> MovieDTO.of(movie, fields)); // JpaRepository already provides findAll(Pageable) -> No need to declare in repo
     }
 
     @Transactional(readOnly = true)
-    public Page<Movie> findByGenre(Long genreId, Pageable pageable) {
-        return movieRepository.findByGenres_Id(genreId, pageable);
+    @Coalesced
+    public Page<MovieDTO> findByGenre(Long genreId, Pageable pageable, Fields fields) {
+        return movieRepository.findByGenres_Id(genreId, pageable).map(movie -> MovieDTO.of(movie, fields));
     }
 
     @Transactional(readOnly = true)
-    public Page<Movie> findByYear(int releaseYear, Pageable pageable) {
-        return movieRepository.findByReleaseYear(releaseYear, pageable);
+    @Coalesced
+    public Page<MovieDTO> findByYear(int releaseYear, Pageable pageable, Fields fields) {
+        return movieRepository.findByReleaseYear(releaseYear, pageable).map(movie -> MovieDTO.of(movie, fields));
     }
 
     @Transactional(readOnly = true)
-    public Page<Movie> findByActor(Long actorId, Pageable pageable) {
-        return movieRepository.findByActors_Id(actorId, pageable);
+    @Coalesced
+    public Page<MovieDTO> findByActor(Long actorId, Pageable pageable, Fields fields) {
+        return movieRepository.findByActors_Id(actorId, pageable).map(movie -> MovieDTO.of(movie, fields));
+    }
+
+    // Any combination of filters in one query (MovieSpecifications).
+    // A lone genre, actor or year keeps its query-cached finder.
+    @Transactional(readOnly = true)
+    @Coalesced
+    public Page<MovieDTO> search(MovieFilter filter, Pageable pageable, Fields fields) {
+        filter.validate();
+        if (filter.dimensions() == 0) {
+            return findAll(pageable, fields);
+        }
+        if (filter.dimensions() == 1 && filter.genre().size() == 1) {
+            return findByGenre(filter.genre().get(0), pageable, fields);
+        }
+        if (filter.dimensions() == 1 && filter.actor().size() == 1) {
+            return findByActor(filter.actor().get(0), pageable, fields);
+        }
+        if (filter.dimensions() == 1 && filter.year() != null) {
+            return findByYear(filter.year(), pageable, fields);
+        }
+        return movieRepository.findAll(MovieSpecifications.matching(filter), pageable).map(movie -> MovieDTO.of(movie, fields));
+    }
+
+    // READ - KEYSET (?after=): seeks past the last row on the (sortKey, id) index, no OFFSET and no COUNT
+
+    @Transactional(readOnly = true)
+    @Coalesced
+    public CursorPage<MovieDTO> scroll(MovieFilter filter, String sortKey, String after, int size, Fields fields) {
+        filter.validate();
+        Specification<Movie> spec = MovieSpecifications.matching(filter);
+        Sort sort = CursorCodec.sort(sortKey, SORTABLE);
+        KeysetScrollPosition position = CursorCodec.decode(after, sort, SORTABLE);
+        Window<Movie> window = movieRepository.findBy(CursorCodec.seek(spec, position, sort),
+                q -> q.sortBy(sort).limit(size).scroll(position));
+        return new CursorPage<>(window.map(movie -> MovieDTO.of(movie, fields)).getContent(), size, CursorCodec.next(window));
     }
 
+    // Ranked by relevance when the FTS index is available (the page sort is ignored then)
     @Transactional(readOnly = true)
-    public Page<Movie> searchByTitle(String title, Pageable pageable) {
-        return movieRepository.findByTitleContainingIgnoreCase(title, pageable);
+    @Coalesced
+    public Page<MovieDTO> searchByTitle(String title, Pageable pageable, Fields fields) {
+        return movieSearchRepository.searchTitleIds(title, pageable)
+        .map(ids -> {
+            List<Long> order = ids.getContent(); // At most one page of ids
+            List<MovieDTO> movies = movieRepository.findAllById(order).stream()
+            .sorted(Comparator.comparingInt(m -> order.indexOf(m.getId())))
+            .map(movie -> MovieDTO.of(movie, fields))
+            .toList();
+            return (Page<MovieDTO>) new PageImpl<>(movies, pageable, ids.getTotalElements());
+        })
+        .orElseGet(() -> movieRepository.findByTitleContainingIgnoreCase(title, pageable).map(movie -> MovieDTO.of(movie, fields)));
     }
 }
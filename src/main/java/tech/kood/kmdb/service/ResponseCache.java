@@ -0,0 +1,214 @@
+package tech.kood.kmdb.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import tech.kood.kmdb.dto.ActorDTO;
+import tech.kood.kmdb.dto.GenreDTO;
+import tech.kood.kmdb.dto.MovieDTO;
+import tech.kood.kmdb.event.ActorChangedEvent;
+import tech.kood.kmdb.event.GenreChangedEvent;
+import tech.kood.kmdb.event.MovieChangedEvent;
+import tech.kood.kmdb.event.MovieLinksRemovedEvent;
+
+// Serialized JSON of GET /api/movies|actors|genres/{id}, so a hot entity is neither loaded nor serialized again.
+// Bounded by kmdb.response-cache.max-bytes (Caffeine, W-TinyLFU eviction), 0 turns it off. With
+// kmdb.response-cache.gzip the gzipped body is kept too, for clients that accept it.
+// Each entry remembers which entities its JSON embeds. After a commit:
+// - a movie change drops the movie and the genres/actors it was or is linked to (their movie lists),
+// - an actor/genre update or delete drops it and every entry that embeds it (name, birth date in a movie),
+// - a chunk of an async force delete drops the genre/actor and the movies it was unlinked from.
+// A load that ran while anything was invalidated isn't kept: it may have read the rows before that commit.
+// Each body carries its strong ETag (CatalogRevision), built from the read model version it was serialized from.
+@Component
+public class ResponseCache {
+
+    public enum Kind { MOVIE, ACTOR, GENRE }
+
+    public record Key(Kind kind, long id) {}
+
+    // json + optional gzip of one response, its ETag, the entities it embeds
+    public record Body(byte[] json, byte[] gzip, String etag, List<Key> embeds) {
+
+        public byte[] bytes(boolean gzipped) {
+            return gzipped ? gzip : json;
+        }
+
+        // Strong ETags differ per encoding
+        public String etag(boolean gzipped) {
+            return gzipped ? etag.substring(0, etag.length() - 1) + "-gz\"" : etag;
+        }
+
+        public boolean isGzipped() {
+            return gzip != null;
+        }
+
+        int weight() {
+            return json.length + (gzip != null ? gzip.length : 0) + etag.length() + 32 * embeds.size() + 64;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final CatalogRevision catalogRevision;
+    private final Cache<Key, Body> cache;
+    private final boolean enabled;
+    private final boolean gzip;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ResponseCache(ObjectMapper objectMapper, CatalogRevision catalogRevision,
+            @Value("${kmdb.response-cache.max-bytes:33554432}") long maxBytes,
+            @Value("${kmdb.response-cache.gzip:false}") boolean gzip) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("kmdb.response-cache.max-bytes must be >= 0");
+        }
+        this.objectMapper = objectMapper;
+        this.catalogRevision = catalogRevision;
+        this.enabled = maxBytes > 0;
+        this.gzip = gzip;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Body body) -> body.weight())
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Body> movie(long id, Supplier<Optional<MovieDTO>> loader) {
+        return get(new Key(Kind.MOVIE, id), loader, MovieDTO::version, movie -> Stream.concat(
+                movie.genres().stream().map(genre -> new Key(Kind.GENRE, genre.id())),
+                movie.actors().stream().map(actor -> new Key(Kind.ACTOR, actor.id()))));
+    }
+
+    public Optional<Body> actor(long id, Supplier<Optional<ActorDTO>> loader) {
+        return get(new Key(Kind.ACTOR, id), loader, ActorDTO::version,
+                actor -> actor.movies().stream().map(movie -> new Key(Kind.MOVIE, movie.id())));
+    }
+
+    public Optional<Body> genre(long id, Supplier<Optional<GenreDTO>> loader) {
+        return get(new Key(Kind.GENRE, id), loader, GenreDTO::version,
+                genre -> genre.movies().stream().map(movie -> new Key(Kind.MOVIE, movie.id())));
+    }
+
+    private <T> Optional<Body> get(Key key, Supplier<Optional<T>> loader, ToLongFunction<T> version,
+            Function<T, Stream<Key>> embeds) {
+        Body body = enabled ? cache.getIfPresent(key) : null;
+        if (body != null) {
+            return Optional.of(body);
+        }
+        long seen = invalidations.get();
+        Optional<T> dto = loader.get();
+        if (dto.isEmpty()) {
+            return Optional.empty(); // 404s aren't cached: a create doesn't have to invalidate anything
+        }
+        String etag = catalogRevision.etag(key.kind(), key.id(), version.applyAsLong(dto.get()));
+        body = serialize(dto.get(), etag, embeds.apply(dto.get()).toList());
+        if (enabled) {
+            cache.put(key, body);
+            if (invalidations.get() != seen) { // Either this check or the invalidation's removal catches it
+                cache.asMap().remove(key, body);
+            }
+        }
+        return Optional.of(body);
+    }
+
+    @TransactionalEventListener
+    public void afterMovieCommit(MovieChangedEvent event) {
+        invalidations.incrementAndGet();
+        cache.invalidate(new Key(Kind.MOVIE, event.movieId()));
+        for (MovieChangedEvent.State state : new MovieChangedEvent.State[] { event.before(), event.after() }) {
+            if (state != null) {
+                state.genreIds().forEach(id -> cache.invalidate(new Key(Kind.GENRE, id)));
+                state.actorIds().forEach(id -> cache.invalidate(new Key(Kind.ACTOR, id)));
+            }
+        }
+    }
+
+    @TransactionalEventListener
+    public void afterActorCommit(ActorChangedEvent event) {
+        if (event.oldName() != null) { // Nothing embeds a created actor yet
+            invalidateWithEmbedding(new Key(Kind.ACTOR, event.actorId()));
+        }
+    }
+
+    @TransactionalEventListener
+    public void afterGenreCommit(GenreChangedEvent event) {
+        if (event.oldName() != null) {
+            invalidateWithEmbedding(new Key(Kind.GENRE, event.genreId()));
+        }
+    }
+
+    @TransactionalEventListener
+    public void afterLinksRemoved(MovieLinksRemovedEvent event) {
+        invalidations.incrementAndGet();
+        cache.invalidate(new Key(event.target() == MovieLinksRemovedEvent.Target.GENRE ? Kind.GENRE : Kind.ACTOR,
+                event.targetId()));
+        event.movieIds().forEach(id -> cache.invalidate(new Key(Kind.MOVIE, id)));
+    }
+
+    // Renames and deletes are rare: a scan of the cached entries beats keeping a reverse index up to date
+    private void invalidateWithEmbedding(Key key) {
+        invalidations.incrementAndGet();
+        cache.invalidate(key);
+        cache.asMap().values().removeIf(body -> body.embeds().contains(key));
+    }
+
+    public void clear() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", enabled);
+        body.put("gzip", gzip);
+        body.put("entries", cache.estimatedSize());
+        body.put("bytes", cache.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L));
+        body.put("maxBytes", cache.policy().eviction().map(e -> e.getMaximum()).orElse(0L));
+        body.put("hits", stats.hitCount());
+        body.put("misses", stats.missCount());
+        body.put("evictions", stats.evictionCount());
+        body.put("invalidations", invalidations.get());
+        body.put("catalogRevision", catalogRevision.current());
+        return body;
+    }
+
+    private Body serialize(Object dto, String etag, List<Key> embeds) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(dto);
+            return new Body(json, gzip ? gzip(json) : null, etag, embeds);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + dto.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream zip = new GZIPOutputStream(out)) {
+            zip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,24 @@
+package tech.kood.kmdb.service;
+
+import java.sql.SQLException;
+
+import org.springframework.dao.PessimisticLockingFailureException;
+
+// SQLite error classification shared by the background writers
+final class SqliteErrors {
+
+    private SqliteErrors() {}
+
+    // SQLITE_BUSY (5) or SQLITE_LOCKED (6), extended result codes keep the primary code in the low byte
+    static boolean isBusy(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof PessimisticLockingFailureException) {
+                return true;
+            }
+            if (t instanceof SQLException sql && ((sql.getErrorCode() & 0xff) == 5 || (sql.getErrorCode() & 0xff) == 6)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
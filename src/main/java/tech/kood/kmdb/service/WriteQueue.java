@@ -0,0 +1,231 @@
+package tech.kood.kmdb.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+// Single writer for SQLite: movie, actor and genre mutations are queued and run by one dedicated thread, so request
+// threads never fight over the database's write lock.
+// The writer takes whatever is waiting (up to kmdb.writes.max-batch) and commits it in one transaction:
+// one lock acquisition and one journal sync for the group instead of one per request.
+// A group that fails is rolled back and its writes run again one per transaction, so every caller gets its own
+// result or error. A write that finds the database locked (import, delete job) is retried with backoff.
+// Writes must not keep state between runs and map their result inside the transaction (entities are detached
+// once the group commits, on a thread without the request's EntityManager).
+@Component
+public class WriteQueue {
+
+    private static final int MAX_ATTEMPTS = 10;
+    // Batch size histogram buckets: 1, 2, 3-4, 5-8, ... 65-128, more
+    private static final String[] BUCKETS = { "1", "2", "3-4", "5-8", "9-16", "17-32", "33-64", "65-128", "129+" };
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatch;
+    private final BlockingQueue<Write<?>> queue;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    // Metrics (GET /api/admin/writes)
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong maxDepth = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong committedWrites = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong busyRetries = new AtomicLong();
+    private final AtomicLong splitGroups = new AtomicLong();
+    private final AtomicLong maxBatchSeen = new AtomicLong();
+    private final AtomicLongArray batchSizes = new AtomicLongArray(BUCKETS.length);
+
+    public WriteQueue(PlatformTransactionManager transactionManager,
+            @Value("${kmdb.writes.max-batch:64}") int maxBatch,
+            @Value("${kmdb.writes.queue-capacity:10000}") int capacity) {
+        if (maxBatch < 1 || capacity < 1) {
+            throw new IllegalArgumentException("kmdb.writes.max-batch and kmdb.writes.queue-capacity must be >= 1");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatch = maxBatch;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.writer = new Thread(this::runWriter, "db-writer");
+        this.writer.start();
+    }
+
+    // Runs the write on the writer thread and waits for its group to commit: returns its result or rethrows its
+    // own exception (IllegalArgumentException, ResourceNotFoundException... keep their 400/404)
+    public <T> T execute(Supplier<T> work) {
+        if (Thread.currentThread() == writer) {
+            return work.get(); // Already inside the group's transaction
+        }
+        try {
+            return submit(work).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the write to commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public void execute(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Completes once the write's group has committed (or with the write's own exception)
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        if (closed) {
+            throw new RejectedExecutionException("Shutting down, writes are no longer accepted");
+        }
+        Write<T> write = new Write<>(work);
+        if (!queue.offer(write)) {
+            throw new RejectedExecutionException("Write queue is full (" + queue.size() + " pending), retry later");
+        }
+        submitted.incrementAndGet();
+        maxDepth.accumulateAndGet(queue.size(), Math::max);
+        return write.future;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long groups = commits.get();
+        stats.put("queueDepth", queue.size());
+        stats.put("maxQueueDepth", maxDepth.get());
+        stats.put("submitted", submitted.get());
+        stats.put("commits", groups);
+        stats.put("committedWrites", committedWrites.get());
+        stats.put("failedWrites", failedWrites.get());
+        stats.put("busyRetries", busyRetries.get());
+        stats.put("splitGroups", splitGroups.get());
+        stats.put("avgBatchSize", groups > 0 ? Math.round(committedWrites.get() * 100.0 / groups) / 100.0 : 0.0);
+        stats.put("maxBatchSize", maxBatchSeen.get());
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS.length; i++) {
+            histogram.put(BUCKETS[i], batchSizes.get(i));
+        }
+        stats.put("batchSizes", histogram);
+        return stats;
+    }
+
+    // Writes accepted before shutdown are still committed
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        closed = true;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void runWriter() {
+        List<Write<?>> group = new ArrayList<>(maxBatch);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Write<?> first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, maxBatch - 1);
+                commit(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                group.forEach(write -> write.fail(new IllegalStateException("Writer interrupted", e)));
+                return;
+            } catch (RuntimeException | Error e) {
+                group.forEach(write -> write.fail(e)); // Never leave a caller waiting
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void commit(List<Write<?>> group) throws InterruptedException {
+        try {
+            runInTransaction(group);
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                failedWrites.incrementAndGet();
+                group.get(0).fail(e);
+                return;
+            }
+            // Someone's error (or a failed commit) rolled back the whole group: every write alone, in order
+            splitGroups.incrementAndGet();
+            for (Write<?> write : group) {
+                commit(List.of(write));
+            }
+            return;
+        }
+        commits.incrementAndGet();
+        committedWrites.addAndGet(group.size());
+        maxBatchSeen.accumulateAndGet(group.size(), Math::max);
+        batchSizes.incrementAndGet(bucket(group.size()));
+        group.forEach(Write::complete);
+    }
+
+    // Another connection kept the database locked past SQLite's busy timeout: back off and run the write again.
+    // A group is split instead, it may have locked itself out: Hibernate takes id blocks on a second connection,
+    // which can't write once the group's transaction has written.
+    private void runInTransaction(List<Write<?>> group) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> group.forEach(Write::run));
+                return;
+            } catch (RuntimeException e) {
+                if (group.size() > 1 || attempt == MAX_ATTEMPTS || !SqliteErrors.isBusy(e)) {
+                    throw e;
+                }
+                busyRetries.incrementAndGet();
+                Thread.sleep(Math.min(1000, 10L << attempt));
+            }
+        }
+    }
+
+    private static int bucket(int size) {
+        int bucket = 32 - Integer.numberOfLeadingZeros(size - 1); // ceil(log2(size))
+        return Math.min(bucket, BUCKETS.length - 1);
+    }
+
+    // One queued write: its result is kept until the group commits
+    private static final class Write<T> {
+        final Supplier<T> work;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+
+        Write(Supplier<T> work) {
+            this.work = work;
+        }
+
+        void run() {
+            result = work.get();
+        }
+
+        void complete() {
+            future.complete(result);
+        }
+
+        void fail(Throwable e) {
+            future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package tech.kood.kmdb.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tech.kood.kmdb.service.Coalesced;
+
+// Single flight on a @Coalesced test bean whose first load blocks until released: callers that arrive meanwhile
+// share it, unless a write committed since it started or its deadline passed.
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(ReadCoalescingTests.Loads.class)
+class ReadCoalescingTests {
+
+    @Autowired Loads loads;
+    @Autowired ReadCoalescing readCoalescing;
+    @Autowired BulkheadTransactionManager transactionManager;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    ExecutorService callers;
+
+    @BeforeEach
+    void reset() {
+        loads.reset();
+        callers = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void stop() {
+        loads.release();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsShareOneLoad() throws Exception {
+        long collapsed = readCoalescing.total("collapsed");
+        Future<String> first = callers.submit(() -> loads.load(1));
+        loads.awaitStarted();
+        Thread[] waiting = new Thread[3];
+        Future<?>[] followers = new Future<?>[waiting.length];
+        for (int i = 0; i < waiting.length; i++) {
+            int n = i;
+            followers[i] = callers.submit(() -> {
+                waiting[n] = Thread.currentThread();
+                return loads.load(1);
+            });
+        }
+        awaitParked(waiting);
+        loads.release();
+
+        assertEquals("1#1", first.get(5, TimeUnit.SECONDS));
+        for (Future<?> follower : followers) {
+            assertEquals("1#1", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.calls());
+        assertEquals(collapsed + waiting.length, readCoalescing.total("collapsed"));
+    }
+
+    @Test
+    void callAfterACommitDoesNotJoinAnOlderLoad() throws Exception {
+        long stale = readCoalescing.total("stale");
+        Future<String> first = callers.submit(() -> loads.load(2));
+        loads.awaitStarted();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> jdbcTemplate.update("update genre set name = name where id = -1"));
+
+        assertEquals("2#2", loads.load(2)); // Its own load, while the first one still runs
+        loads.release();
+        assertEquals("2#1", first.get(5, TimeUnit.SECONDS));
+        assertEquals(stale + 1, readCoalescing.total("stale"));
+    }
+
+    @Test
+    void waitStopsAtTheDeadline() throws Exception {
+        long timeouts = readCoalescing.total("timeouts");
+        Future<String> first = callers.submit(() -> loads.slow(3));
+        loads.awaitStarted();
+
+        assertEquals("3#2", loads.slow(3)); // Waited 100 ms, then ran the call itself
+        loads.release();
+        assertEquals("3#1", first.get(5, TimeUnit.SECONDS));
+        assertEquals(timeouts + 1, readCoalescing.total("timeouts"));
+    }
+
+    // Waiting for the shared result (parked in CompletableFuture.get)
+    private static void awaitParked(Thread[] threads) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            boolean all = true;
+            for (Thread thread : threads) {
+                all &= thread != null && thread.getState() == Thread.State.TIMED_WAITING;
+            }
+            if (all) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        assertTrue(false, "Callers never waited for the shared load");
+    }
+
+    // "<id>#<call number>", the first call blocks until released (state behind methods: this bean is proxied)
+    @Component
+    static class Loads {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CountDownLatch release;
+        private volatile CountDownLatch started;
+
+        public void reset() {
+            calls.set(0);
+            release = new CountDownLatch(1);
+            started = new CountDownLatch(1);
+        }
+
+        public void awaitStarted() throws InterruptedException {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        }
+
+        public void release() {
+            release.countDown();
+        }
+
+        public int calls() {
+            return calls.get();
+        }
+
+        @Coalesced
+        public String load(long id) throws InterruptedException {
+            return run(id);
+        }
+
+        @Coalesced(timeoutMs = 100)
+        public String slow(long id) throws InterruptedException {
+            return run(id);
+        }
+
+        private String run(long id) throws InterruptedException {
+            int call = calls.incrementAndGet();
+            if (call == 1) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return id + "#" + call;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package tech.kood.kmdb.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tech.kood.kmdb.dto.JobStatus;
+import tech.kood.kmdb.service.DeleteJobService;
+
+// An async force delete commits one link per chunk here, with a long pause after each: between two chunks,
+// cached responses, cached collections, ETags and facet counts must already show the links removed so far.
+@SpringBootTest(properties = { "kmdb.delete.chunk-size=1", "kmdb.delete.pause-ms=2000" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AsyncDeleteChunkTests {
+
+    @Autowired MockMvc mvc;
+    @Autowired DeleteJobService deleteJobService;
+    @Autowired ObjectMapper objectMapper;
+
+    @Test
+    void chunksShowUpBeforeTheJobEnds() throws Exception {
+        long genre = create("/api/genres", "{\"name\":\"Chunk Genre\"}");
+        long[] movies = {
+            create("/api/movies", movie("Chunk Movie 1", genre)),
+            create("/api/movies", movie("Chunk Movie 2", genre))
+        };
+        String[] etags = new String[movies.length];
+        for (int i = 0; i < movies.length; i++) {
+            etags[i] = etag(get("/api/movies/" + movies[i]));
+        }
+        String genres = etag(get("/api/genres"));
+        mvc.perform(get("/api/genres/" + genre)).andExpect(jsonPath("$.movies.length()").value(2));
+        mvc.perform(get("/api/movies/facets?genre=" + genre)).andExpect(jsonPath("$.total").value(2));
+
+        String body = mvc.perform(delete("/api/genres/" + genre + "?force=true&async=true"))
+            .andExpect(status().isAccepted()).andReturn().getResponse().getContentAsString();
+        awaitFirstChunk(objectMapper.readTree(body).get("id").asText());
+
+        int unlinked = 0;
+        for (int i = 0; i < movies.length; i++) {
+            String json = mvc.perform(get("/api/movies/" + movies[i])).andReturn().getResponse().getContentAsString();
+            if (objectMapper.readTree(json).get("genres").isEmpty()) {
+                unlinked++;
+                assertNotEquals(etags[i], etag(get("/api/movies/" + movies[i]).header(HttpHeaders.IF_NONE_MATCH, etags[i])));
+            }
+        }
+        assertEquals(1, unlinked);
+        etag(get("/api/genres").header(HttpHeaders.IF_NONE_MATCH, genres)); // 200, not 304
+        mvc.perform(get("/api/genres/" + genre)).andExpect(jsonPath("$.movies.length()").value(1));
+        mvc.perform(get("/api/movies/facets?genre=" + genre)).andExpect(jsonPath("$.total").value(1));
+        mvc.perform(get("/api/movies?genre=" + genre)).andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    // Running, one link removed, the pause before the next chunk under way
+    private void awaitFirstChunk(String job) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            JobStatus status = deleteJobService.find(job).orElseThrow();
+            if (status.removedLinks() == 1) {
+                assertEquals("RUNNING", status.state());
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("The first chunk never committed");
+    }
+
+    // 200 with an ETag
+    private String etag(MockHttpServletRequestBuilder request) throws Exception {
+        String etag = mvc.perform(request).andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private long create(String path, String body) throws Exception {
+        String created = mvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(created).get("id").asLong();
+    }
+
+    private static String movie(String title, long genre) {
+        return """
+            {"title":"%s","releaseYear":2001,"duration":100,"genres":[{"id":%d}],"actors":[]}""".formatted(title, genre);
+    }
+}
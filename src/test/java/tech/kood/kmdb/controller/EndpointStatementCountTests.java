@@ -0,0 +1,351 @@
+package tech.kood.kmdb.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tech.kood.kmdb.dto.MultiGet;
+import tech.kood.kmdb.service.CatalogCache;
+import tech.kood.kmdb.service.DeleteJobService;
+import tech.kood.kmdb.service.MovieImportService;
+import tech.kood.kmdb.service.ResponseCache;
+
+// Statement budgets for the movie, actor and genre endpoints that are not lists (ListStatementCountTests):
+// details, links, creates, patches, deletes and the import. Each request runs against a small and a large
+// variant (a movie with 1 or 8 genres and 1 or 10 actors, a genre/actor with 2 or 60 movies, 5 or 30 imported
+// rows): both must fit the same budget, reads must run exactly the same statements. Movie lists fetch-join their
+// genres and batch fetch their actors, one extra statement per default_batch_fetch_size (100) movies.
+// Caches (second-level and responses) are emptied first, every statement through the DataSource counts,
+// whatever thread runs it.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(StatementCounter.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointStatementCountTests {
+
+    private static final int LINKS = 60;
+
+    @Autowired MockMvc mvc;
+    @Autowired StatementCounter counter;
+    @Autowired CatalogCache catalogCache;
+    @Autowired ResponseCache responseCache;
+    @Autowired MovieImportService movieImportService;
+    @Autowired DeleteJobService deleteJobService;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired ObjectMapper objectMapper;
+
+    long plainMovie;
+    long richMovie;
+    long smallGenre;
+    long bigGenre;
+    long smallActor;
+    long bigActor;
+
+    @BeforeAll
+    void importCatalog() {
+        StringBuilder ndjson = new StringBuilder();
+        ndjson.append(row("Budget Plain", List.of("Budget Genre 0"), List.of("Budget Actor 0")));
+        ndjson.append(row("Budget Rich", names("Budget Genre", 8), names("Budget Actor", 10)));
+        for (int i = 0; i < LINKS; i++) {
+            ndjson.append(row("Budget Linked " + i, List.of("Budget Big Genre"), List.of("Budget Big Actor")));
+        }
+        for (int i = 0; i < 2; i++) {
+            ndjson.append(row("Budget Few " + i, List.of("Budget Small Genre"), List.of("Budget Small Actor")));
+        }
+        load(ndjson.toString());
+
+        plainMovie = id("select id from movie where title = 'Budget Plain'");
+        richMovie = id("select id from movie where title = 'Budget Rich'");
+        smallGenre = id("select id from genre where name = 'Budget Small Genre'");
+        bigGenre = id("select id from genre where name = 'Budget Big Genre'");
+        smallActor = id("select id from actor where name = 'Budget Small Actor'");
+        bigActor = id("select id from actor where name = 'Budget Big Actor'");
+    }
+
+    // READ
+
+    @Test
+    void movieDetailDoesNotDependOnLinks() throws Exception {
+        assertSameStatements(3, "GET /api/movies/{id}",
+            statements(get("/api/movies/" + plainMovie), status().isOk()),
+            statements(get("/api/movies/" + richMovie), status().isOk()));
+    }
+
+    @Test
+    void movieActorsDoNotDependOnLinks() throws Exception {
+        assertSameStatements(3, "GET /api/movies/{id}/actors",
+            statements(get("/api/movies/" + plainMovie + "/actors"), status().isOk()),
+            statements(get("/api/movies/" + richMovie + "/actors"), status().isOk()));
+    }
+
+    @Test
+    void genreDetailAndMoviesDoNotDependOnLinks() throws Exception {
+        assertSameStatements(2, "GET /api/genres/{id}",
+            statements(get("/api/genres/" + smallGenre), status().isOk()),
+            statements(get("/api/genres/" + bigGenre), status().isOk()));
+        assertSameStatements(2, "GET /api/genres/{id}/movies",
+            statements(get("/api/genres/" + smallGenre + "/movies"), status().isOk()),
+            statements(get("/api/genres/" + bigGenre + "/movies"), status().isOk()));
+    }
+
+    @Test
+    void actorDetailAndMoviesDoNotDependOnLinks() throws Exception {
+        assertSameStatements(2, "GET /api/actors/{id}",
+            statements(get("/api/actors/" + smallActor), status().isOk()),
+            statements(get("/api/actors/" + bigActor), status().isOk()));
+        assertSameStatements(2, "GET /api/actors/{id}/movies",
+            statements(get("/api/actors/" + smallActor + "/movies"), status().isOk()),
+            statements(get("/api/actors/" + bigActor + "/movies"), status().isOk()));
+    }
+
+    @Test
+    void multiGetsDoNotDependOnBatchSize() throws Exception {
+        List<Long> movies = jdbcTemplate.queryForList("select id from movie where title like 'Budget Linked %'", Long.class);
+        List<Long> genres = jdbcTemplate.queryForList("select id from genre where name like 'Budget%'", Long.class);
+        List<Long> actors = jdbcTemplate.queryForList("select id from actor where name like 'Budget%'", Long.class);
+        assertSameStatements(2, "GET /api/movies?ids=",
+            statements(get("/api/movies?ids=" + richMovie + "," + plainMovie), status().isOk()),
+            statements(get("/api/movies?ids=" + join(movies.subList(0, 30))), status().isOk()));
+        assertSameStatements(1, "GET /api/genres?ids=",
+            statements(get("/api/genres?ids=" + smallGenre + "," + bigGenre), status().isOk()),
+            statements(get("/api/genres?ids=" + join(genres)), status().isOk()));
+        assertSameStatements(1, "GET /api/actors?ids=",
+            statements(get("/api/actors?ids=" + smallActor + "," + bigActor), status().isOk()),
+            statements(get("/api/actors?ids=" + join(actors)), status().isOk()));
+
+        mvc.perform(get("/api/movies?ids=" + richMovie + ",-1," + plainMovie + "," + richMovie))
+            .andExpect(jsonPath("$.content[*].id", Matchers.contains((int) richMovie, (int) plainMovie)))
+            .andExpect(jsonPath("$.content[0].actors.length()").value(10))
+            .andExpect(jsonPath("$.missing", Matchers.contains(-1)));
+        mvc.perform(get("/api/movies?ids=" + join(LongStream.rangeClosed(1, MultiGet.MAX_IDS + 1).boxed().toList())))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void facetsRunNoStatement() throws Exception { // In-memory bitmap index
+        assertBudget(0, "GET /api/movies/facets",
+            statements(get("/api/movies/facets?genre=" + bigGenre), status().isOk()));
+    }
+
+    // WRITE
+
+    @Test
+    void movieCreateDoesNotDependOnLinks() throws Exception {
+        assertSameBudget(3, "POST /api/movies",
+            statements(json(post("/api/movies"), movie("Budget New Plain", ids(smallGenre), ids(smallActor))),
+                status().isCreated()),
+            statements(json(post("/api/movies"), movie("Budget New Rich", genreIds(), actorIds())),
+                status().isCreated()));
+    }
+
+    @Test
+    void moviePatchDoesNotDependOnLinks() throws Exception {
+        assertSameBudget(4, "PATCH /api/movies/{id}",
+            statements(json(patch("/api/movies/" + plainMovie), "{\"duration\":101}"), status().isOk()),
+            statements(json(patch("/api/movies/" + richMovie), "{\"duration\":101}"), status().isOk()));
+    }
+
+    @Test
+    void movieForceDeleteDoesNotDependOnLinks() throws Exception {
+        load(row("Budget Doomed Plain", List.of("Budget Genre 0"), List.of("Budget Actor 0"))
+            + row("Budget Doomed Rich", names("Budget Genre", 8), names("Budget Actor", 10)));
+        long plain = id("select id from movie where title = 'Budget Doomed Plain'");
+        long rich = id("select id from movie where title = 'Budget Doomed Rich'");
+
+        assertSameBudget(6, "DELETE /api/movies/{id}?force=true",
+            statements(delete("/api/movies/" + plain + "?force=true"), status().isNoContent()),
+            statements(delete("/api/movies/" + rich + "?force=true"), status().isNoContent()));
+    }
+
+    @Test
+    void genreWritesDoNotDependOnLinks() throws Exception {
+        assertBudget(2, "POST /api/genres",
+            statements(json(post("/api/genres"), "{\"name\":\"Budget Created Genre\"}"), status().isCreated()));
+        assertSameBudget(4, "PATCH /api/genres/{id}",
+            statements(json(patch("/api/genres/" + smallGenre), "{\"name\":\"Budget Small Genre 2\"}"), status().isOk()),
+            statements(json(patch("/api/genres/" + bigGenre), "{\"name\":\"Budget Big Genre 2\"}"), status().isOk()));
+
+        long[] doomed = doomed("genre", "Budget Doomed Genre");
+        assertSameBudget(5, "DELETE /api/genres/{id}?force=true",
+            statements(delete("/api/genres/" + doomed[0] + "?force=true"), status().isNoContent()),
+            statements(delete("/api/genres/" + doomed[1] + "?force=true"), status().isNoContent()));
+
+        doomed = doomed("genre", "Budget Async Genre");
+        assertSameBudget(7, "DELETE /api/genres/{id}?force=true&async=true",
+            asyncStatements(delete("/api/genres/" + doomed[0] + "?force=true&async=true")),
+            asyncStatements(delete("/api/genres/" + doomed[1] + "?force=true&async=true")));
+    }
+
+    @Test
+    void actorWritesDoNotDependOnLinks() throws Exception {
+        assertBudget(1, "POST /api/actors",
+            statements(json(post("/api/actors"), "{\"name\":\"Budget Created Actor\",\"birthDate\":\"1970-01-01\"}"),
+                status().isCreated()));
+        assertSameBudget(2, "PATCH /api/actors/{id}",
+            statements(json(patch("/api/actors/" + smallActor), "{\"name\":\"Budget Small Actor 2\"}"), status().isOk()),
+            statements(json(patch("/api/actors/" + bigActor), "{\"name\":\"Budget Big Actor 2\"}"), status().isOk()));
+
+        long[] doomed = doomed("actor", "Budget Doomed Actor");
+        assertSameBudget(5, "DELETE /api/actors/{id}?force=true",
+            statements(delete("/api/actors/" + doomed[0] + "?force=true"), status().isNoContent()),
+            statements(delete("/api/actors/" + doomed[1] + "?force=true"), status().isNoContent()));
+    }
+
+    // Per chunk: 2 name lookups, 3 batches (movies, movie-genres, movie-actors), and maybe a new id block (2).
+    // 30 rows keep every batch under hibernate.jdbc.batch_size, bigger imports add one statement per 100 links.
+    @Test
+    void importDoesNotDependOnRows() throws Exception {
+        assertSameBudget(7, "POST /api/movies/import",
+            statements(ndjson(5), status().isOk()),
+            statements(ndjson(30), status().isOk()));
+    }
+
+    // HELPERS
+
+    private List<String> statements(MockHttpServletRequestBuilder request, ResultMatcher expected) throws Exception {
+        catalogCache.evictAll();
+        responseCache.clear();
+        counter.reset();
+
+        mvc.perform(request).andExpect(expected);
+
+        return counter.statements();
+    }
+
+    // 202 + job: counted once the job has finished
+    private List<String> asyncStatements(MockHttpServletRequestBuilder request) throws Exception {
+        catalogCache.evictAll();
+        responseCache.clear();
+        counter.reset();
+
+        String body = mvc.perform(request).andExpect(status().isAccepted()).andReturn().getResponse().getContentAsString();
+        String job = objectMapper.readTree(body).get("id").asText();
+        for (int i = 0; i < 100 && !deleteJobService.find(job).orElseThrow().state().equals("SUCCEEDED"); i++) {
+            Thread.sleep(50);
+        }
+        assertEquals("SUCCEEDED", deleteJobService.find(job).orElseThrow().state());
+        return counter.statements();
+    }
+
+    // A genre/actor linked to 2 movies and one linked to LINKS movies, created for a delete
+    private long[] doomed(String table, String name) {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < LINKS; i++) {
+            String small = i < 2 ? name + " Small" : name + " Big";
+            List<String> linked = List.of(small, name + " Big");
+            ndjson.append("genre".equals(table)
+                ? row(name + " Movie " + i, linked, List.of("Budget Actor 0"))
+                : row(name + " Movie " + i, List.of("Budget Genre 0"), linked));
+        }
+        load(ndjson.toString());
+        return new long[] {
+            id("select id from " + table + " where name = '" + name + " Small'"),
+            id("select id from " + table + " where name = '" + name + " Big'")
+        };
+    }
+
+    private MockHttpServletRequestBuilder ndjson(int rows) {
+        String body = IntStream.range(0, rows)
+            .mapToObj(i -> row("Budget Imported " + rows + "-" + i, List.of("Budget Genre 1", "Budget Genre 2"),
+                List.of("Budget Actor 1", "Budget Actor 2", "Budget Actor 3")))
+            .collect(Collectors.joining());
+        return post("/api/movies/import").contentType(MediaType.APPLICATION_NDJSON).content(body);
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    private static String movie(String title, String genres, String actors) {
+        return """
+            {"title":"%s","releaseYear":2001,"duration":100,"genres":%s,"actors":%s}""".formatted(title, genres, actors);
+    }
+
+    private String genreIds() {
+        return ids(jdbcTemplate.queryForList("select id from genre where name like 'Budget Genre %'", Long.class));
+    }
+
+    private String actorIds() {
+        return ids(jdbcTemplate.queryForList("select id from actor where name like 'Budget Actor %'", Long.class));
+    }
+
+    private static String join(List<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static String ids(long id) {
+        return ids(List.of(id));
+    }
+
+    private static String ids(List<Long> ids) {
+        return ids.stream().map(id -> "{\"id\":" + id + "}").collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static String row(String title, List<String> genres, List<String> actors) {
+        return """
+            {"title":"%s","releaseYear":1902,"duration":90,"genres":%s,"actors":%s}
+            """.formatted(title, quoted(genres), quoted(actors));
+    }
+
+    private static String quoted(List<String> names) {
+        return names.stream().map(n -> "\"" + n + "\"").collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static List<String> names(String prefix, int count) {
+        return IntStream.range(0, count).mapToObj(i -> prefix + " " + i).toList();
+    }
+
+    private void load(String ndjson) {
+        movieImportService.importNdjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private long id(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static void assertBudget(int budget, String request, List<String> statements) {
+        assertTrue(statements.size() <= budget,
+            request + " ran " + statements.size() + " statements, budget " + budget + ":" + StatementCounter.describe(statements));
+    }
+
+    private static void assertSameBudget(int budget, String request, List<String> small, List<String> large) {
+        assertBudget(budget, request + " (small)", small);
+        assertBudget(budget, request + " (large)", large);
+    }
+
+    private static void assertSameStatements(int budget, String request, List<String> small, List<String> large) {
+        assertSameBudget(budget, request, small, large);
+        assertEquals(small.size(), large.size(), request + " small vs large:" + StatementCounter.describe(small)
+            + "\nlarge:" + StatementCounter.describe(large));
+    }
+}
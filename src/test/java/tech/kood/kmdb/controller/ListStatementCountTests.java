@@ -0,0 +1,179 @@
+package tech.kood.kmdb.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import tech.kood.kmdb.service.CatalogCache;
+import tech.kood.kmdb.service.MovieImportService;
+import tech.kood.kmdb.service.ResponseCache;
+
+// List endpoints must run a fixed number of SQL statements, whatever the page size (no N+1 while serializing).
+// Caches are emptied before every request so the counts are what the database sees (StatementCounter).
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(StatementCounter.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListStatementCountTests {
+
+    private static final int MOVIES = 150; // More than the largest page
+
+    @Autowired MockMvc mvc;
+    @Autowired StatementCounter counter;
+    @Autowired CatalogCache catalogCache;
+    @Autowired ResponseCache responseCache;
+    @Autowired MovieImportService movieImportService;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    long genreId;
+    long actorId;
+    long movieId;
+
+    @BeforeAll
+    void importCatalog() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < MOVIES; i++) {
+            ndjson.append("""
+                {"title":"Count Movie %d","releaseYear":1901,"duration":90,\
+                "genres":["Count Genre","Count Genre %d"],\
+                "actors":["Count Actor","Count Actor %d","Count Actor %d"]}
+                """.formatted(i, i % 3, i % 7, (i + 1) % 7));
+        }
+        movieImportService.importNdjson(new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), null);
+
+        genreId = jdbcTemplate.queryForObject("select id from genre where name = 'Count Genre'", Long.class);
+        actorId = jdbcTemplate.queryForObject("select id from actor where name = 'Count Actor'", Long.class);
+        movieId = jdbcTemplate.queryForObject("select min(id) from movie where title like 'Count Movie%'", Long.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "/api/movies?", "/api/movies?genre={genre}&", "/api/movies?year=1901&", "/api/movies?actor={actor}&",
+        "/api/actors?", "/api/actors?name=count&", "/api/genres?"
+    })
+    void pagedListsDoNotGrowWithPageSize(String url) throws Exception {
+        List<String> small = statements(url + "page=0&size=5");
+        List<String> large = statements(url + "page=0&size=100");
+
+        assertTrue(large.size() <= small.size(), url + ": " + large.size() + " statements for 100 rows, " + small.size()
+            + " for 5:" + StatementCounter.describe(large)); // COUNT is skipped when one page holds everything
+        assertBudget(4, url, small); // page + count + one per collection
+    }
+
+    // Full-text search: count + ids from movie_fts (JdbcTemplate), then the page of movies + one per collection
+    @Test
+    void titleSearchDoesNotGrowWithPageSize() throws Exception {
+        String url = "/api/movies/search?title=count&";
+        List<String> small = statements(url + "page=0&size=5");
+        List<String> large = statements(url + "page=0&size=100");
+
+        assertTrue(large.size() <= small.size(), url + ":" + StatementCounter.describe(large));
+        assertBudget(5, url, small);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "/api/movies?", "/api/movies?genre={genre}&", "/api/movies?sort=title&", "/api/actors?", "/api/genres?"
+    })
+    void cursorWindowsDoNotGrowWithSize(String url) throws Exception {
+        List<String> small = statements(url + "after=&size=5");
+        List<String> large = statements(url + "after=&size=100");
+
+        assertEquals(small.size(), large.size(), url + ":" + StatementCounter.describe(large));
+        assertBudget(3, url, large); // window + one per collection
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "/api/actors", "/api/actors?name=count", "/api/genres",
+        "/api/genres/{genre}/movies", "/api/actors/{actor}/movies", "/api/movies/{movie}/actors"
+    })
+    void unpagedListsRunAFewStatements(String url) throws Exception {
+        assertBudget(3, url, statements(url));
+    }
+
+    @Test
+    void detailsRunAFewStatements() throws Exception {
+        assertBudget(3, "/api/movies/{movie}", statements("/api/movies/{movie}"));
+        assertBudget(2, "/api/actors/{actor}", statements("/api/actors/{actor}"));
+        assertBudget(2, "/api/genres/{genre}", statements("/api/genres/{genre}"));
+    }
+
+    // Without a collection in ?fields=, no statement reads a join table
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "/api/movies?page=0&size=20&", "/api/movies?after=&", "/api/movies?ids={movie}&", "/api/movies/{movie}?",
+        "/api/movies/search?title=count&",
+        "/api/actors?", "/api/actors?name=count&", "/api/actors?page=0&size=20&", "/api/actors?after=&",
+        "/api/actors?ids={actor}&", "/api/actors/{actor}?",
+        "/api/genres?", "/api/genres?page=0&size=20&", "/api/genres?after=&", "/api/genres?ids={genre}&",
+        "/api/genres/{genre}?"
+    })
+    void sparseReadsSkipTheJoinTables(String url) throws Exception {
+        String fields = url.startsWith("/api/movies") ? "fields=id,title" : "fields=id,name";
+        List<String> statements = statements(url + fields);
+
+        assertTrue(statements.stream().noneMatch(sql -> sql.contains("movie-genres") || sql.contains("movie-actors")),
+            url + fields + ":" + StatementCounter.describe(statements));
+    }
+
+    @Test
+    void sparseReadsWriteOnlyTheRequestedFields() throws Exception {
+        mvc.perform(get("/api/movies?page=0&size=5&fields=title"))
+            .andExpect(jsonPath("$.content[0].id").exists()) // Always there
+            .andExpect(jsonPath("$.content[0].title").exists())
+            .andExpect(jsonPath("$.content[0].releaseYear").doesNotExist())
+            .andExpect(jsonPath("$.content[0].genres").doesNotExist());
+        mvc.perform(get("/api/movies/" + movieId + "?include=genres"))
+            .andExpect(jsonPath("$.releaseYear").value(1901))
+            .andExpect(jsonPath("$.genres.length()").value(2))
+            .andExpect(jsonPath("$.actors").doesNotExist());
+        mvc.perform(get("/api/movies/" + movieId))
+            .andExpect(jsonPath("$.actors.length()").value(3));
+        mvc.perform(get("/api/actors/" + actorId + "/movies?fields=id,actors&include=genres"))
+            .andExpect(jsonPath("$[0].genres").exists())
+            .andExpect(jsonPath("$[0].actors").exists())
+            .andExpect(jsonPath("$[0].title").doesNotExist());
+        mvc.perform(get("/api/genres?fields=id,title")).andExpect(status().isBadRequest());
+        mvc.perform(get("/api/genres?include=name")).andExpect(status().isBadRequest());
+    }
+
+    private List<String> statements(String template) throws Exception {
+        String url = template
+            .replace("{genre}", String.valueOf(genreId))
+            .replace("{actor}", String.valueOf(actorId))
+            .replace("{movie}", String.valueOf(movieId));
+        catalogCache.evictAll();
+        responseCache.clear();
+        counter.reset();
+
+        mvc.perform(get(url)).andExpect(status().isOk());
+
+        return counter.statements();
+    }
+
+    private static void assertBudget(int budget, String url, List<String> statements) {
+        assertTrue(statements.size() <= budget,
+            url + " ran " + statements.size() + " statements, budget " + budget + ":" + StatementCounter.describe(statements));
+    }
+}
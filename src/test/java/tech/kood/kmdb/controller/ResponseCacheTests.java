@@ -0,0 +1,177 @@
+package tech.kood.kmdb.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Cached single-entity responses: a repeated read runs no statement, and every write that changes what a cached
+// body shows (own fields, embedded names, links) is visible on the next read.
+// ETags: a matching If-None-Match is answered 304 without a statement, any such write changes the tag.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(StatementCounter.class)
+class ResponseCacheTests {
+
+    @Autowired MockMvc mvc;
+    @Autowired StatementCounter counter;
+    @Autowired ObjectMapper objectMapper;
+
+    @Test
+    void repeatedReadRunsNoStatement() throws Exception {
+        long genre = create("/api/genres", "{\"name\":\"Cached Genre\"}");
+        long actor = create("/api/actors", "{\"name\":\"Cached Actor\",\"birthDate\":\"1970-01-01\"}");
+        long movie = create("/api/movies", movie("Cached Movie", genre, actor));
+
+        mvc.perform(get("/api/movies/" + movie)).andExpect(status().isOk());
+        counter.reset();
+        mvc.perform(get("/api/movies/" + movie))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Cached Movie"));
+        assertEquals(0, counter.statements().size(), StatementCounter.describe(counter.statements()));
+    }
+
+    @Test
+    void embeddedNamesFollowRenames() throws Exception {
+        long genre = create("/api/genres", "{\"name\":\"Rename Genre\"}");
+        long actor = create("/api/actors", "{\"name\":\"Rename Actor\",\"birthDate\":\"1970-01-01\"}");
+        long movie = create("/api/movies", movie("Rename Movie", genre, actor));
+        warm(movie, genre, actor);
+
+        mvc.perform(json(patch("/api/actors/" + actor), "{\"name\":\"Renamed Actor\"}")).andExpect(status().isOk());
+        mvc.perform(json(patch("/api/genres/" + genre), "{\"name\":\"Renamed Genre\"}")).andExpect(status().isOk());
+        mvc.perform(json(patch("/api/movies/" + movie), "{\"title\":\"Renamed Movie\"}")).andExpect(status().isOk());
+
+        mvc.perform(get("/api/movies/" + movie))
+            .andExpect(jsonPath("$.title").value("Renamed Movie"))
+            .andExpect(jsonPath("$.genres[0].name").value("Renamed Genre"))
+            .andExpect(jsonPath("$.actors[0].name").value("Renamed Actor"));
+        mvc.perform(get("/api/actors/" + actor))
+            .andExpect(jsonPath("$.name").value("Renamed Actor"))
+            .andExpect(jsonPath("$.movies[0].title").value("Renamed Movie"));
+        mvc.perform(get("/api/genres/" + genre))
+            .andExpect(jsonPath("$.name").value("Renamed Genre"))
+            .andExpect(jsonPath("$.movies[0].title").value("Renamed Movie"));
+    }
+
+    @Test
+    void linksFollowCreatesAndDeletes() throws Exception {
+        long genre = create("/api/genres", "{\"name\":\"Link Genre\"}");
+        long actor = create("/api/actors", "{\"name\":\"Link Actor\",\"birthDate\":\"1970-01-01\"}");
+        long doomed = create("/api/actors", "{\"name\":\"Link Doomed Actor\",\"birthDate\":\"1970-01-01\"}");
+        long first = create("/api/movies", movie("Link First", genre, actor, doomed));
+        warm(first, genre, actor);
+
+        long second = create("/api/movies", movie("Link Second", genre, actor));
+        mvc.perform(get("/api/actors/" + actor)).andExpect(jsonPath("$.movies.length()").value(2));
+        mvc.perform(get("/api/genres/" + genre)).andExpect(jsonPath("$.movies.length()").value(2));
+
+        mvc.perform(get("/api/movies/" + first)).andExpect(jsonPath("$.actors.length()").value(2));
+        mvc.perform(delete("/api/actors/" + doomed + "?force=true")).andExpect(status().isNoContent());
+        mvc.perform(get("/api/movies/" + first)).andExpect(jsonPath("$.actors.length()").value(1));
+
+        mvc.perform(delete("/api/movies/" + second + "?force=true")).andExpect(status().isNoContent());
+        mvc.perform(get("/api/movies/" + second)).andExpect(status().isNotFound());
+        mvc.perform(get("/api/actors/" + actor))
+            .andExpect(jsonPath("$.movies[*].title", Matchers.contains("Link First")));
+    }
+
+    @Test
+    void notModifiedUntilWhatTheMovieShowsChanges() throws Exception {
+        long genre = create("/api/genres", "{\"name\":\"Etag Genre\"}");
+        long actor = create("/api/actors", "{\"name\":\"Etag Actor\",\"birthDate\":\"1970-01-01\"}");
+        long movie = create("/api/movies", movie("Etag Movie", genre, actor));
+        String etag = etag(get("/api/movies/" + movie));
+
+        assertNotModified(get("/api/movies/" + movie).header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        mvc.perform(json(patch("/api/actors/" + actor), "{\"name\":\"Etag Actor 2\"}")).andExpect(status().isOk());
+        String renamed = etag(get("/api/movies/" + movie).header(HttpHeaders.IF_NONE_MATCH, etag));
+        assertNotEquals(etag, renamed);
+
+        mvc.perform(json(patch("/api/movies/" + movie), "{\"duration\":101}")).andExpect(status().isOk());
+        assertNotEquals(renamed, etag(get("/api/movies/" + movie).header(HttpHeaders.IF_NONE_MATCH, renamed)));
+    }
+
+    @Test
+    void listsAreNotModifiedUntilAKindTheyShowChanges() throws Exception {
+        long genre = create("/api/genres", "{\"name\":\"Etag List Genre\"}");
+        long actor = create("/api/actors", "{\"name\":\"Etag List Actor\",\"birthDate\":\"1970-01-01\"}");
+        long movie = create("/api/movies", movie("Etag List Movie", genre, actor));
+        String genres = etag(get("/api/genres"));
+        String actors = etag(get("/api/movies/" + movie + "/actors"));
+
+        assertNotModified(get("/api/genres").header(HttpHeaders.IF_NONE_MATCH, genres));
+        assertNotModified(get("/api/movies/" + movie + "/actors").header(HttpHeaders.IF_NONE_MATCH, actors));
+
+        mvc.perform(json(patch("/api/actors/" + actor), "{\"name\":\"Etag List Actor 2\"}")).andExpect(status().isOk());
+        assertNotModified(get("/api/genres").header(HttpHeaders.IF_NONE_MATCH, genres)); // Genres don't show actors
+        actors = etag(get("/api/movies/" + movie + "/actors").header(HttpHeaders.IF_NONE_MATCH, actors));
+
+        mvc.perform(json(patch("/api/movies/" + movie), "{\"title\":\"Etag List Movie 2\"}")).andExpect(status().isOk());
+        etag(get("/api/genres").header(HttpHeaders.IF_NONE_MATCH, genres));
+        etag(get("/api/movies/" + movie + "/actors").header(HttpHeaders.IF_NONE_MATCH, actors));
+    }
+
+    // HELPERS
+
+    // 200 with an ETag
+    private String etag(MockHttpServletRequestBuilder request) throws Exception {
+        String etag = mvc.perform(request).andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private void assertNotModified(MockHttpServletRequestBuilder request) throws Exception {
+        counter.reset();
+        mvc.perform(request).andExpect(status().isNotModified());
+        assertEquals(0, counter.statements().size(), StatementCounter.describe(counter.statements()));
+    }
+
+    private void warm(long movie, long genre, long actor) throws Exception {
+        mvc.perform(get("/api/movies/" + movie)).andExpect(status().isOk());
+        mvc.perform(get("/api/genres/" + genre)).andExpect(status().isOk());
+        mvc.perform(get("/api/actors/" + actor)).andExpect(status().isOk());
+    }
+
+    private long create(String path, String body) throws Exception {
+        String created = mvc.perform(json(post(path), body)).andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(created).get("id").asLong();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    private static String movie(String title, long genre, long... actors) {
+        String cast = Arrays.stream(actors).mapToObj(id -> "{\"id\":" + id + "}").collect(Collectors.joining(","));
+        return """
+            {"title":"%s","releaseYear":2001,"duration":100,"genres":[{"id":%d}],"actors":[%s]}"""
+            .formatted(title, genre, cast);
+    }
+}
@@ -0,0 +1,56 @@
+package tech.kood.kmdb.controller;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+// Records every statement sent through the application's DataSource (datasource-proxy around the "dataSource"
+// bean), from any thread: request, write queue, delete jobs. A JDBC batch counts once.
+// @Import it into a test, reset() before the request, read statements() after.
+public class StatementCounter implements BeanPostProcessor, QueryExecutionListener {
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+            return ProxyDataSourceBuilder.create("counted", dataSource).listener(this).build();
+        }
+        return bean;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {}
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        String sql = queries.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        statements.add(execution.isBatch() ? sql + "  [batch of " + execution.getBatchSize() + "]" : sql);
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    // For assertion messages: one numbered statement per line
+    public static String describe(List<String> statements) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < statements.size(); i++) {
+            out.append("\n  ").append(i + 1).append(". ").append(statements.get(i));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package tech.kood.kmdb.controller;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// /api/movies/search keeps the LIKE contract on the FTS index: case-insensitive substrings, ?sort= honored.
+// Rows written with plain SQL (ids far above the generator's) check the triggers.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TitleSearchTests {
+
+    @Autowired MockMvc mvc;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired ObjectMapper objectMapper;
+
+    @Test
+    void matchesAnySubstringOfTheTitle() throws Exception {
+        String genre = mvc.perform(post("/api/genres").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Search Genre\"}"))
+            .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        mvc.perform(post("/api/movies").contentType(MediaType.APPLICATION_JSON).content("""
+            {"title":"The Zorblax Returns","releaseYear":2001,"duration":100,"genres":[{"id":%d}],"actors":[]}"""
+                .formatted(objectMapper.readTree(genre).get("id").asLong())))
+            .andExpect(status().isCreated());
+
+        search("orblax").andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.content[0].title").value("The Zorblax Returns"));
+        search("ZORBLAX RET").andExpect(jsonPath("$.totalElements").value(1));
+        search("Zorblax Returns Again").andExpect(jsonPath("$.totalElements").value(0));
+        search("rB&size=100").andExpect(jsonPath("$.content[*].title", hasItem("The Zorblax Returns"))); // LIKE
+        search("\"Zorblax\" OR *").andExpect(status().isOk()).andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void triggersFollowPlainSqlWrites() throws Exception {
+        jdbcTemplate.update("insert into movie (id, title, release_year, duration, version) values (?, ?, 1999, 90, 0)",
+            900001, "The Qwixotic Voyage");
+        search("ixoti").andExpect(jsonPath("$.totalElements").value(1));
+
+        jdbcTemplate.update("update movie set title = ? where id = ?", "The Brandnew Voyage", 900001);
+        search("ixoti").andExpect(jsonPath("$.totalElements").value(0));
+        search("andnew voy").andExpect(jsonPath("$.totalElements").value(1));
+
+        jdbcTemplate.update("delete from movie where id = ?", 900001);
+        search("andnew voy").andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void sortIsHonoredOrRejected() throws Exception {
+        jdbcTemplate.update("insert into movie (id, title, release_year, duration, version) values (?, ?, ?, 90, 0)",
+            900011, "Sortcheck Alpha", 2001);
+        jdbcTemplate.update("insert into movie (id, title, release_year, duration, version) values (?, ?, ?, 90, 0)",
+            900012, "Sortcheck Beta", 1999);
+
+        search("sortcheck&sort=title").andExpect(jsonPath("$.content[0].title").value("Sortcheck Alpha"));
+        search("sortcheck&sort=title,desc").andExpect(jsonPath("$.content[0].title").value("Sortcheck Beta"));
+        search("sortcheck&sort=releaseYear").andExpect(jsonPath("$.content[0].title").value("Sortcheck Beta"));
+        search("sortcheck&sort=budget").andExpect(status().isBadRequest());
+        search("so&sort=budget").andExpect(status().isBadRequest()); // Same answer on the LIKE path
+    }
+
+    private ResultActions search(String query) throws Exception {
+        return mvc.perform(get("/api/movies/search?title=" + query));
+    }
+}
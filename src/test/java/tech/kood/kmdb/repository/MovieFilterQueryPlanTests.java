@@ -0,0 +1,87 @@
+package tech.kood.kmdb.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import tech.kood.kmdb.dto.MovieFilter;
+
+// Combined /api/movies filters must stay one indexed query: the generated SQL (page + count) goes through
+// EXPLAIN QUERY PLAN and no table may be read by a full scan.
+@SpringBootTest(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=tech.kood.kmdb.repository.CapturingStatementInspector")
+@ActiveProfiles("test")
+class MovieFilterQueryPlanTests {
+
+    // "SCAN movie", "SCAN m1_0" ... without an index (SQLite prints "SCAN t USING INDEX i" for index walks)
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN \\S+$");
+
+    @Autowired MovieRepository movieRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    void genreAndYear() {
+        assertIndexed(new MovieFilter(List.of(1L), "any", List.of(), null, 1999, null, null, null, null, null));
+    }
+
+    @Test
+    void allOfTwoGenresAndAnActor() {
+        assertIndexed(new MovieFilter(List.of(1L, 2L), "all", List.of(3L), null, null, null, null, null, null, null));
+    }
+
+    @Test
+    void anyOfActorsAndYearRangeAndDuration() {
+        assertIndexed(new MovieFilter(List.of(), null, List.of(3L, 4L), null, null, 1990, 2010, 90, 180, null));
+    }
+
+    @Test
+    void genreAndTitle() {
+        assertIndexed(new MovieFilter(List.of(2L), null, List.of(), null, null, null, null, null, null, "matrix"));
+    }
+
+    @Test
+    void everything() {
+        assertIndexed(new MovieFilter(List.of(1L, 2L), "all", List.of(3L, 4L), "any", null, 1990, 2010, 90, 180, "the"));
+    }
+
+    @Test
+    void yearRangeAndTitle() {
+        assertIndexed(new MovieFilter(List.of(), null, List.of(), null, null, 1990, 2000, null, null, "the"));
+    }
+
+    private void assertIndexed(MovieFilter filter) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        movieRepository.findAll(MovieSpecifications.matching(filter), PageRequest.of(0, 1));
+        List<String> queries = CapturingStatementInspector.STATEMENTS.stream()
+            .filter(sql -> sql.toLowerCase().startsWith("select") && sql.contains("movie"))
+            .toList();
+        assertFalse(queries.isEmpty(), "no SQL captured");
+        for (String sql : queries) {
+            List<String> plan = plan(sql);
+            assertTrue(plan.stream().noneMatch(step -> FULL_SCAN.matcher(step).matches()),
+                "Full scan in " + plan + "\nfor " + sql);
+        }
+    }
+
+    // EXPLAIN QUERY PLAN details, parameters bound to 1 (the plan doesn't depend on the values)
+    private List<String> plan(String sql) {
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+        Object[] args = new Object[parameters];
+        Arrays.fill(args, 1);
+        List<String> steps = new ArrayList<>();
+        jdbcTemplate.query("EXPLAIN QUERY PLAN " + sql, rs -> { steps.add(rs.getString("detail")); }, args);
+        assertFalse(steps.isEmpty());
+        return steps;
+    }
+}